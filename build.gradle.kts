@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("org.jetbrains.intellij.platform") version "2.11.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.shimba"
@@ -16,6 +17,9 @@ repositories {
 // Configure Gradle IntelliJ Plugin
 // Read more: https://plugins.jetbrains.com/docs/intellij/tools-intellij-platform-gradle-plugin.html
 dependencies {
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.opentest4j:opentest4j:1.3.0")
+
     intellijPlatform {
         create("IC", "2025.1")
         testFramework(org.jetbrains.intellij.platform.gradle.TestFrameworkType.Platform)
@@ -25,6 +29,24 @@ dependencies {
     }
 }
 
+// Benchmarks run against the plugin classes with stand-ins for files and
+// editor windows, so they only need the platform jars on the classpath
+configurations {
+    named("jmhCompileClasspath") { extendsFrom(configurations["intellijPlatformClasspath"]) }
+    named("jmhRuntimeClasspath") { extendsFrom(configurations["intellijPlatformClasspath"]) }
+}
+
+jmh {
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    benchmarkMode = listOf("avgt")
+    timeUnit = "us"
+    jvmArgs = listOf("-Djava.awt.headless=true")
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+}
+
 intellijPlatform {
     buildSearchableOptions = false
 
@@ -0,0 +1,52 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class FilterBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int tabs;
+
+    @Param({"w1_42", "W1J", "zzz"})
+    public String pattern;
+
+    private final OpenEditorsDataService dataService = new OpenEditorsDataService(null);
+    private final EditorFilterIndex filterIndex = new EditorFilterIndex(VirtualFile::getPath);
+    private final RowStore rows = new RowStore();
+    private EditorSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        snapshot = StandIns.snapshot(tabs, 4);
+        dataService.fillRows(snapshot, rows);
+        filterIndex.sync(rows);
+    }
+
+    // What one keystroke costs on the builder thread once the index is warm
+    @Benchmark
+    public RowStore filterRows() {
+        dataService.fillRows(snapshot, rows);
+        filterIndex.sync(rows);
+        rows.retainFiles(filterIndex.match(pattern)::contains);
+        return rows;
+    }
+
+    // Typing the pattern one character at a time; the first character
+    // scans the whole index and the rest narrow the previous matches
+    @Benchmark
+    public int typePattern() {
+        int matched = 0;
+
+        for (int length = 1; length <= pattern.length(); length++) {
+            matched += filterIndex.match(pattern.substring(0, length)).size();
+        }
+
+        return matched;
+    }
+}
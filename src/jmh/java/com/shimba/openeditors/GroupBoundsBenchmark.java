@@ -0,0 +1,47 @@
+package com.shimba.openeditors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.swing.*;
+
+@State(Scope.Thread)
+public class GroupBoundsBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int tabs;
+
+    @Param({"1", "2", "4", "8"})
+    public int windows;
+
+    private DefaultListModel<ListItem> model;
+    private ListRowIndex rowIndex;
+    private int lastRow;
+
+    @Setup
+    public void setUp() {
+        RowStore rows = new RowStore();
+        new OpenEditorsDataService(null).fillRows(StandIns.snapshot(tabs, windows), rows);
+
+        model = new DefaultListModel<>();
+        model.addAll(rows.toItems());
+        rowIndex = new ListRowIndex(new JList<>(model));
+        lastRow = model.getSize() - 1;
+    }
+
+    // What every drag-motion event pays once the index is built
+    @Benchmark
+    public ListRowIndex.GroupBounds lookup() {
+        return rowIndex.groupBounds(lastRow);
+    }
+
+    // The first lookup after the model changed rebuilds the index
+    @Benchmark
+    public ListRowIndex.GroupBounds lookupAfterModelChange() {
+        model.add(lastRow, model.remove(lastRow));
+        return rowIndex.groupBounds(lastRow);
+    }
+}
@@ -0,0 +1,57 @@
+package com.shimba.openeditors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Thread)
+public class ModelUpdateBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int tabs;
+
+    @Param({"1", "2", "4", "8"})
+    public int windows;
+
+    private final OpenEditorsDataService dataService = new OpenEditorsDataService(null);
+    private final RowStore shown = new RowStore();
+    private final RowStore rebuilt = new RowStore();
+    private List<ListItem> items;
+    private List<ListItem> itemsWithOneClosed;
+    private DefaultListModel<ListItem> model;
+
+    @Setup
+    public void setUp() {
+        EditorSnapshot snapshot = StandIns.snapshot(tabs, windows);
+        dataService.fillRows(snapshot, shown);
+        dataService.fillRows(snapshot, rebuilt);
+
+        items = shown.toItems();
+        itemsWithOneClosed = new ArrayList<>(items);
+        itemsWithOneClosed.remove(items.size() / 2);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetModel() {
+        model = new DefaultListModel<>();
+        model.addAll(items);
+    }
+
+    @Benchmark
+    public boolean unchangedCheck() {
+        return rebuilt.contentEquals(shown);
+    }
+
+    @Benchmark
+    public DefaultListModel<ListItem> diffOneClosedTab() {
+        ListModelDiff.apply(model, itemsWithOneClosed);
+        return model;
+    }
+}
@@ -0,0 +1,32 @@
+package com.shimba.openeditors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class RowBuildBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int tabs;
+
+    @Param({"1", "2", "4", "8"})
+    public int windows;
+
+    private final OpenEditorsDataService dataService = new OpenEditorsDataService(null);
+    private final RowStore rows = new RowStore();
+    private EditorSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        snapshot = StandIns.snapshot(tabs, windows);
+    }
+
+    @Benchmark
+    public RowStore fillRows() {
+        dataService.fillRows(snapshot, rows);
+        return rows;
+    }
+}
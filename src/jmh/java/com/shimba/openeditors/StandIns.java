@@ -0,0 +1,131 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileSystem;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lightweight replacements for platform objects. EditorWindow cannot be
+// created outside a running IDE, so stand-in windows are null: the hot
+// paths only compare windows by identity, and groups stay apart through
+// their WindowState
+final class StandIns {
+
+    private StandIns() {
+    }
+
+    static EditorSnapshot snapshot(int tabs, int windows) {
+        List<EditorSnapshot.WindowState> states = new ArrayList<>(windows);
+        int perWindow = Math.max(1, tabs / windows);
+
+        for (int w = 0; w < windows; w++) {
+            List<VirtualFile> files = files("w" + w + "_", perWindow);
+            List<Boolean> pinned = new ArrayList<>(perWindow);
+
+            for (int i = 0; i < perWindow; i++) {
+                pinned.add(i % 10 == 0);
+            }
+
+            states.add(new EditorSnapshot.WindowState(null, w < 2, w == 0, files.get(perWindow / 2), files, pinned));
+        }
+
+        return new EditorSnapshot(states, 0);
+    }
+
+    static List<VirtualFile> files(String prefix, int count) {
+        List<VirtualFile> files = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            files.add(new StandInFile(prefix + i + ".java"));
+        }
+
+        return files;
+    }
+
+    static final class StandInFile extends VirtualFile {
+
+        private final String name;
+
+        StandInFile(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return name;
+        }
+
+        @Override
+        public @NotNull VirtualFileSystem getFileSystem() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull String getPath() {
+            return "/project/src/main/java/com/example/" + name;
+        }
+
+        @Override
+        public boolean isWritable() {
+            return true;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return false;
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+
+        @Override
+        public @NotNull String getPresentableUrl() {
+            return getPath();
+        }
+
+        @Override
+        public VirtualFile getParent() {
+            return null;
+        }
+
+        @Override
+        public VirtualFile[] getChildren() {
+            return null;
+        }
+
+        @Override
+        public @NotNull OutputStream getOutputStream(Object requestor, long newModificationStamp, long newTimeStamp) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte @NotNull [] contentsToByteArray() {
+            return new byte[0];
+        }
+
+        @Override
+        public long getTimeStamp() {
+            return 0;
+        }
+
+        @Override
+        public long getLength() {
+            return 0;
+        }
+
+        @Override
+        public void refresh(boolean asynchronous, boolean recursive, Runnable postRunnable) {
+        }
+
+        @Override
+        public @NotNull InputStream getInputStream() {
+            return InputStream.nullInputStream();
+        }
+    }
+}
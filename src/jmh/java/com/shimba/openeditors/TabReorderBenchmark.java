@@ -0,0 +1,47 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.tabs.TabInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Thread)
+public class TabReorderBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int tabs;
+
+    private List<TabInfo> current;
+    private List<VirtualFile> unchangedOrder;
+    private List<VirtualFile> oneTabMoved;
+
+    @Setup
+    public void setUp() {
+        List<VirtualFile> files = StandIns.files("tab", tabs);
+        current = new ArrayList<>(tabs);
+
+        for (VirtualFile file : files) {
+            current.add(new TabInfo(null).setObject(file));
+        }
+
+        unchangedOrder = files;
+        oneTabMoved = new ArrayList<>(files);
+        oneTabMoved.add(0, oneTabMoved.remove(tabs - 1));
+    }
+
+    @Benchmark
+    public List<TabInfo> unchangedOrder() {
+        return TabReorderHelper.targetOrder(current, unchangedOrder);
+    }
+
+    @Benchmark
+    public List<TabInfo> oneTabMoved() {
+        return TabReorderHelper.targetOrder(current, oneTabMoved);
+    }
+}
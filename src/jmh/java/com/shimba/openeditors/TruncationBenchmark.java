@@ -0,0 +1,55 @@
+package com.shimba.openeditors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+@State(Scope.Thread)
+public class TruncationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int tabs;
+
+    private final TextTruncator truncator = new TextTruncator();
+    private String[] paths;
+    private FontMetrics metrics;
+    private int listWidth = 200;
+
+    @Setup
+    public void setUp() {
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        metrics = g.getFontMetrics(new Font(Font.SANS_SERIF, Font.PLAIN, 13));
+        g.dispose();
+
+        paths = new String[tabs];
+
+        for (int i = 0; i < tabs; i++) {
+            paths[i] = "src/main/java/com/example/feature" + i % 37 + "/internal/SomeLongClassName" + i + ".java";
+        }
+    }
+
+    // Every row of a repaint after the list was resized
+    @Benchmark
+    public void coldAfterResize(Blackhole blackhole) {
+        listWidth = listWidth == 200 ? 201 : 200;
+        truncator.resetIfListWidthChanged(listWidth);
+
+        for (String path : paths) {
+            blackhole.consume(truncator.truncateFromStart(path, metrics, listWidth));
+        }
+    }
+
+    // Every row of a repaint at an unchanged width
+    @Benchmark
+    public void warm(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(truncator.truncateFromStart(path, metrics, 200));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Thread)
+public class VirtualListModelBenchmark {
+
+    private static final int VISIBLE_ROWS = 40;
+
+    @Param({"100", "1000", "10000"})
+    public int rows;
+
+    private final OpenEditorsDataService dataService = new OpenEditorsDataService(null);
+    private final VirtualListModel model = new VirtualListModel();
+    private final RowStore shown = new RowStore();
+    private final RowStore activeMoved = new RowStore();
+    private final RowStore tabClosed = new RowStore();
+    private int firstVisible;
+    private boolean flip;
+
+    @Setup
+    public void setUp() {
+        EditorSnapshot snapshot = StandIns.snapshot(rows, 4);
+        dataService.fillRows(snapshot, shown);
+        dataService.fillRows(withWindow(snapshot, 0, selectFirst(snapshot.windows().get(0))), activeMoved);
+        dataService.fillRows(withWindow(snapshot, 1, closeMiddle(snapshot.windows().get(1))), tabClosed);
+        model.setRows(shown);
+    }
+
+    // A refresh after switching tabs: only the old and new active rows differ
+    @Benchmark
+    public int refreshActiveMoved() {
+        flip = !flip;
+        model.setRows(flip ? activeMoved : shown);
+        return model.activeRow();
+    }
+
+    // A refresh after closing one tab in the middle of the list
+    @Benchmark
+    public int refreshTabClosed() {
+        flip = !flip;
+        model.setRows(flip ? tabClosed : shown);
+        return model.activeRow();
+    }
+
+    // Painting one viewport while scrolling down a page at a time
+    @Benchmark
+    public int scrollPage() {
+        int size = model.getSize();
+        int painted = 0;
+
+        for (int i = firstVisible; i < Math.min(size, firstVisible + VISIBLE_ROWS); i++) {
+            painted += model.getElementAt(i) instanceof ListItem.FileEntry ? 1 : 0;
+        }
+
+        firstVisible = firstVisible + VISIBLE_ROWS < size ? firstVisible + VISIBLE_ROWS : 0;
+
+        return painted;
+    }
+
+    // The row kinds a layout pass reads to assign header and file heights
+    @Benchmark
+    public int layoutRowKinds() {
+        int headers = 0;
+
+        for (int i = 0; i < model.getSize(); i++) {
+            headers += model.isHeader(i) ? 1 : 0;
+        }
+
+        return headers;
+    }
+
+    private static EditorSnapshot withWindow(EditorSnapshot snapshot, int index, EditorSnapshot.WindowState window) {
+        List<EditorSnapshot.WindowState> windows = new ArrayList<>(snapshot.windows());
+        windows.set(index, window);
+
+        return new EditorSnapshot(windows, snapshot.fingerprint() + 1);
+    }
+
+    private static EditorSnapshot.WindowState selectFirst(EditorSnapshot.WindowState state) {
+        return new EditorSnapshot.WindowState(state.window(), state.mainFrame(), state.current(), state.files().get(0), state.files(),
+            state.pinned());
+    }
+
+    private static EditorSnapshot.WindowState closeMiddle(EditorSnapshot.WindowState state) {
+        List<VirtualFile> files = new ArrayList<>(state.files());
+        List<Boolean> pinned = new ArrayList<>(state.pinned());
+        int middle = files.size() / 2;
+        files.remove(middle);
+        pinned.remove(middle);
+
+        return new EditorSnapshot.WindowState(state.window(), state.mainFrame(), state.current(), state.selectedFile(), files, pinned);
+    }
+}
@@ -9,20 +9,17 @@ import java.awt.event.MouseEvent;
 final class ClickHandler {
 
     private final JBList<ListItem> fileList;
-    private final DefaultListModel<ListItem> listModel;
     private final OpenEditorsActionService actionService;
     private final OpenEditorsListState state;
     private final Runnable refresh;
 
     ClickHandler(
         JBList<ListItem> fileList,
-        DefaultListModel<ListItem> listModel,
         OpenEditorsActionService actionService,
         OpenEditorsListState state,
         Runnable refresh
     ) {
         this.fileList = fileList;
-        this.listModel = listModel;
         this.actionService = actionService;
         this.state = state;
         this.refresh = refresh;
@@ -44,7 +41,7 @@ final class ClickHandler {
             return;
         }
 
-        if (!SwingUtilities.isLeftMouseButton(e)) {
+        if (!SwingUtilities.isLeftMouseButton(e) || ListHitTest.isSelectionGesture(e)) {
             return;
         }
 
@@ -54,7 +51,7 @@ final class ClickHandler {
             return;
         }
 
-        ListItem item = listModel.getElementAt(hit.index());
+        ListItem item = fileList.getModel().getElementAt(hit.index());
 
         if (!(item instanceof ListItem.FileEntry entry)) {
             return;
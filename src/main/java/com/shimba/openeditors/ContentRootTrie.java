@@ -0,0 +1,64 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Root directories by path segment, so finding the root of a file takes
+// one map lookup per directory level no matter how many roots there are
+final class ContentRootTrie {
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private VirtualFile root;
+    }
+
+    private final Node top = new Node();
+
+    void add(VirtualFile root) {
+        Node node = top;
+        String path = root.getPath();
+        int start = 0;
+
+        while (start <= path.length()) {
+            int end = segmentEnd(path, start);
+            node = node.children.computeIfAbsent(path.substring(start, end), segment -> new Node());
+            start = end + 1;
+        }
+
+        // A directory can be a content root and a module directory at once
+        if (node.root == null) {
+            node.root = root;
+        }
+    }
+
+    // The outermost root leaves the most context in the relative path
+    VirtualFile outermostRoot(String path) {
+        Node node = top;
+        int start = 0;
+
+        while (start <= path.length()) {
+            int end = segmentEnd(path, start);
+            node = node.children.get(path.substring(start, end));
+
+            if (node == null) {
+                return null;
+            }
+
+            if (node.root != null) {
+                return node.root;
+            }
+
+            start = end + 1;
+        }
+
+        return null;
+    }
+
+    private static int segmentEnd(String path, int start) {
+        int end = path.indexOf('/', start);
+
+        return end >= 0 ? end : path.length();
+    }
+}
@@ -6,19 +6,16 @@ import com.intellij.openapi.fileEditor.impl.EditorWindow;
 import com.intellij.openapi.project.Project;
 import com.intellij.ui.components.JBList;
 
-import javax.swing.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
 final class ContextMenuHandler {
 
     private final JBList<ListItem> fileList;
-    private final DefaultListModel<ListItem> listModel;
     private final Project project;
 
-    ContextMenuHandler(JBList<ListItem> fileList, DefaultListModel<ListItem> listModel, Project project) {
+    ContextMenuHandler(JBList<ListItem> fileList, Project project) {
         this.fileList = fileList;
-        this.listModel = listModel;
         this.project = project;
     }
 
@@ -47,7 +44,7 @@ final class ContextMenuHandler {
             return;
         }
 
-        ListItem item = listModel.getElementAt(hit.index());
+        ListItem item = fileList.getModel().getElementAt(hit.index());
 
         if (!(item instanceof ListItem.FileEntry entry)) {
             return;
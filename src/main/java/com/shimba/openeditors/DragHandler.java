@@ -9,6 +9,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 final class DragHandler {
@@ -16,22 +17,23 @@ final class DragHandler {
     private static final int DRAG_THRESHOLD = 5;
 
     private final JBList<ListItem> fileList;
-    private final DefaultListModel<ListItem> listModel;
+    private final ListRowIndex rowIndex;
     private final OpenEditorsActionService actionService;
     private final OpenEditorsListState state;
-    private final Runnable refresh;
+    private final ListModelUpdater updater;
 
     private int dragFrom = -1;
+    private int[] draggedRows = new int[0];
     private Point dragStart;
 
-    DragHandler(JBList<ListItem> fileList, DefaultListModel<ListItem> listModel, OpenEditorsActionService actionService,
-        OpenEditorsListState state, Runnable refresh) {
+    DragHandler(JBList<ListItem> fileList, ListRowIndex rowIndex, OpenEditorsActionService actionService, OpenEditorsListState state,
+        ListModelUpdater updater) {
         this.fileList = fileList;
-        this.listModel = listModel;
+        this.rowIndex = rowIndex;
 
         this.actionService = actionService;
         this.state = state;
-        this.refresh = refresh;
+        this.updater = updater;
     }
 
     void install() {
@@ -56,7 +58,7 @@ final class DragHandler {
     }
 
     private void handleMousePressed(MouseEvent e) {
-        if (!SwingUtilities.isLeftMouseButton(e)) {
+        if (!SwingUtilities.isLeftMouseButton(e) || ListHitTest.isSelectionGesture(e)) {
             return;
         }
 
@@ -70,7 +72,7 @@ final class DragHandler {
             return;
         }
 
-        ListItem item = listModel.getElementAt(hit.index());
+        ListItem item = fileList.getModel().getElementAt(hit.index());
 
         if (item instanceof ListItem.GroupHeader) {
             return;
@@ -78,16 +80,39 @@ final class DragHandler {
 
         dragFrom = hit.index();
         dragStart = e.getPoint();
-        fileList.clearSelection();
+        draggedRows = collectDraggedRows(dragFrom);
+
+        if (draggedRows.length == 1) {
+            fileList.clearSelection();
+        }
+    }
+
+    private int[] collectDraggedRows(int pressedRow) {
+        ListRowIndex.GroupBounds bounds = rowIndex.groupBounds(pressedRow);
+
+        if (bounds == null || !fileList.isSelectedIndex(pressedRow)) {
+            return new int[] {pressedRow};
+        }
+
+        // Pressing on a selected row drags the whole selection, limited to
+        // the pinned or unpinned part of the pressed row's group
+        boolean pinned = pressedRow < bounds.pinnedEnd();
+        int from = pinned ? bounds.start() : bounds.pinnedEnd();
+        int to = pinned ? bounds.pinnedEnd() : bounds.end();
+
+        return Arrays.stream(fileList.getSelectedIndices()).filter(row -> row >= from && row < to).toArray();
     }
 
     private void handleMouseReleased() {
-        if (dragFrom >= 0 && state.getDropTarget() >= 0) {
+        int dropTarget = state.getDropTarget();
+
+        if (dragFrom >= 0 && dropTarget >= 0) {
             commitDrop();
         }
 
         state.setSuppressNextClick(state.isDragging());
         dragFrom = -1;
+        draggedRows = new int[0];
         dragStart = null;
         state.setDropTarget(-1);
         state.setDragging(false);
@@ -96,7 +121,9 @@ final class DragHandler {
             fileList.clearSelection();
         }
 
-        fileList.repaint();
+        // Hover highlighting is suppressed while a drop line is shown
+        ListRepaint.dropLine(fileList, dropTarget);
+        ListRepaint.row(fileList, state.getHoveredCellIndex());
     }
 
     private void handleMouseDragged(MouseEvent e) {
@@ -113,13 +140,24 @@ final class DragHandler {
         int index = fileList.locationToIndex(e.getPoint());
         int newTarget = computeDropTarget(e, index);
 
+        if (index >= 0) {
+            fileList.ensureIndexIsVisible(index);
+        }
+
         if (newTarget >= 0) {
             newTarget = clampToGroupBounds(newTarget);
         }
 
-        if (newTarget != state.getDropTarget()) {
+        int oldTarget = state.getDropTarget();
+
+        if (newTarget != oldTarget) {
             state.setDropTarget(newTarget);
-            fileList.repaint();
+            ListRepaint.dropLine(fileList, oldTarget);
+            ListRepaint.dropLine(fileList, newTarget);
+
+            if (oldTarget < 0 || newTarget < 0) {
+                ListRepaint.row(fileList, state.getHoveredCellIndex());
+            }
         }
     }
 
@@ -140,119 +178,82 @@ final class DragHandler {
     }
 
     private int clampToGroupBounds(int target) {
-        GroupBounds bounds = findGroupBounds(dragFrom);
+        ListRowIndex.GroupBounds bounds = rowIndex.groupBounds(dragFrom);
 
         if (bounds == null) {
             return target;
         }
 
-        boolean fromPinned = dragFrom < bounds.pinnedEnd;
+        boolean fromPinned = dragFrom < bounds.pinnedEnd();
 
         if (fromPinned) {
-            return Math.max(bounds.start, Math.min(target, bounds.pinnedEnd));
+            return Math.max(bounds.start(), Math.min(target, bounds.pinnedEnd()));
         }
 
-        return Math.max(bounds.pinnedEnd, Math.min(target, bounds.end));
+        return Math.max(bounds.pinnedEnd(), Math.min(target, bounds.end()));
     }
 
     private void commitDrop() {
-        int fromIdx = dragFrom;
         int toIdx = state.getDropTarget();
-
-        if (fromIdx == toIdx || fromIdx + 1 == toIdx) {
-            return;
-        }
-
-        ListItem draggedItem = listModel.getElementAt(fromIdx);
+        ListItem draggedItem = fileList.getModel().getElementAt(dragFrom);
 
         if (!(draggedItem instanceof ListItem.FileEntry draggedEntry)) {
             return;
         }
 
-        GroupBounds bounds = findGroupBounds(fromIdx);
+        ListRowIndex.GroupBounds bounds = rowIndex.groupBounds(dragFrom);
 
         if (bounds == null) {
             return;
         }
 
-        List<VirtualFile> files = collectGroupFiles(bounds, fromIdx, toIdx);
-
-        actionService.reorderTabsInWindow(draggedEntry.window(), files);
-        actionService.openFileInWindow(draggedEntry.file(), draggedEntry.window());
-        refresh.run();
-    }
+        List<ListItem> groupRows = reorderGroupRows(bounds, toIdx);
 
-    private List<VirtualFile> collectGroupFiles(GroupBounds bounds, int fromIdx, int toIdx) {
-        List<VirtualFile> display = new ArrayList<>();
-
-        for (int i = bounds.start; i < bounds.end; i++) {
-            ListItem item = listModel.getElementAt(i);
-
-            if (item instanceof ListItem.FileEntry fe) {
-                display.add(fe.file());
-            }
-        }
-
-        int relFrom = fromIdx - bounds.start;
-        int relTo = toIdx - bounds.start;
-
-        VirtualFile dragged = display.remove(relFrom);
-        int insertAt = relTo > relFrom ? relTo - 1 : relTo;
-
-        display.add(insertAt, dragged);
-
-        return display;
-    }
-
-    private GroupBounds findGroupBounds(int dragIndex) {
-        if (dragIndex < 0 || dragIndex >= listModel.getSize()) {
-            return null;
-        }
-
-        ListItem draggedItem = listModel.getElementAt(dragIndex);
-
-        if (!(draggedItem instanceof ListItem.FileEntry)) {
-            return null;
+        if (groupRows == null) {
+            return;
         }
 
-        int start = findGroupStart(dragIndex);
-        int end = findGroupEnd(dragIndex);
-        int pinnedEnd = findPinnedEnd(start, end);
+        List<VirtualFile> files = new ArrayList<>(groupRows.size());
 
-        return new GroupBounds(start, end, pinnedEnd);
-    }
-
-    private int findGroupStart(int fromIndex) {
-        for (int i = fromIndex - 1; i >= 0; i--) {
-            if (listModel.getElementAt(i) instanceof ListItem.GroupHeader) {
-                return i + 1;
-            }
+        for (ListItem row : groupRows) {
+            files.add(((ListItem.FileEntry) row).file());
         }
 
-        return 0;
+        // One tab-bar reorder and one model patch, however many rows moved
+        actionService.reorderTabsInWindow(draggedEntry.window(), files);
+        actionService.openFileInWindow(draggedEntry.file(), draggedEntry.window());
+        updater.applyGroupOrder(bounds.start(), groupRows);
     }
 
-    private int findGroupEnd(int fromIndex) {
-        for (int i = fromIndex + 1; i < listModel.getSize(); i++) {
-            if (listModel.getElementAt(i) instanceof ListItem.GroupHeader) {
-                return i;
+    private List<ListItem> reorderGroupRows(ListRowIndex.GroupBounds bounds, int toIdx) {
+        ListModel<ListItem> model = fileList.getModel();
+        List<ListItem> moved = new ArrayList<>(draggedRows.length);
+        List<ListItem> staying = new ArrayList<>(bounds.end() - bounds.start());
+        int insertAt = toIdx - bounds.start();
+        int next = 0;
+
+        for (int i = bounds.start(); i < bounds.end(); i++) {
+            if (next < draggedRows.length && draggedRows[next] == i) {
+                moved.add(model.getElementAt(i));
+                next++;
+
+                if (i < toIdx) {
+                    insertAt--;
+                }
+            } else {
+                staying.add(model.getElementAt(i));
             }
         }
 
-        return listModel.getSize();
-    }
+        List<ListItem> reordered = new ArrayList<>(staying);
+        reordered.addAll(insertAt, moved);
 
-    private int findPinnedEnd(int start, int end) {
-        for (int i = start; i < end; i++) {
-            ListItem item = listModel.getElementAt(i);
-
-            if (item instanceof ListItem.FileEntry fe && !fe.pinned()) {
-                return i;
+        for (int i = 0; i < reordered.size(); i++) {
+            if (!reordered.get(i).sameIdentity(model.getElementAt(bounds.start() + i))) {
+                return reordered;
             }
         }
 
-        return end;
+        return null;
     }
-
-    private record GroupBounds(int start, int end, int pinnedEnd) {}
 }
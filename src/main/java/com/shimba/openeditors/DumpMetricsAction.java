@@ -0,0 +1,46 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+final class DumpMetricsAction extends DumbAwareAction {
+
+    private static final Logger LOG = Logger.getInstance(DumpMetricsAction.class);
+
+    private final Project project;
+
+    DumpMetricsAction(@NotNull Project project) {
+        super("Dump Performance Metrics to JSON");
+        this.project = project;
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.EDT;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        dump(project, project.getService(OpenEditorsMetrics.class));
+    }
+
+    // Written next to idea.log, which is where freeze reports already
+    // send people looking
+    static void dump(Project project, OpenEditorsMetrics metrics) {
+        try {
+            Path target = metrics.dumpToLogDirectory();
+            Messages.showInfoMessage(project, "Metrics written to " + target, "Open Editors");
+        } catch (IOException ex) {
+            LOG.warn("Could not write Open Editors metrics", ex);
+            Messages.showErrorDialog(project, "Could not write metrics: " + ex.getMessage(), "Open Editors");
+        }
+    }
+}
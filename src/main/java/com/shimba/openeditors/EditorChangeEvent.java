@@ -0,0 +1,22 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.vfs.VirtualFile;
+
+sealed interface EditorChangeEvent {
+
+    record FileOpened(VirtualFile file) implements EditorChangeEvent {
+    }
+
+    record FileClosed(VirtualFile file) implements EditorChangeEvent {
+    }
+
+    record SelectionChanged(VirtualFile oldFile, VirtualFile newFile) implements EditorChangeEvent {
+    }
+
+    record PinChanged() implements EditorChangeEvent {
+    }
+
+    // Tab moves, splits and anything else that only a full rebuild can reflect
+    record StructureChanged() implements EditorChangeEvent {
+    }
+}
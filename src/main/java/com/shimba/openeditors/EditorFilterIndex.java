@@ -0,0 +1,158 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.codeStyle.MinusculeMatcher;
+import com.intellij.psi.codeStyle.NameUtil;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Name and relative path of every open file, kept in step with the built
+// rows so that a keystroke never walks the file system again
+final class EditorFilterIndex {
+
+    private static final int DIGIT_BITS = 26;
+    private static final int OTHER_BIT = 63;
+
+    private static final class Entry {
+        private final String name;
+        private final String path;
+        private final long signature;
+        private int seen;
+
+        private Entry(String name, String path, long signature) {
+            this.name = name;
+            this.path = path;
+            this.signature = signature;
+        }
+    }
+
+    private final Function<VirtualFile, String> pathText;
+    private final Map<VirtualFile, Entry> entries = new HashMap<>();
+    private int syncPass;
+    private String lastPattern;
+    private Set<VirtualFile> lastMatches;
+
+    EditorFilterIndex(Project project) {
+        this(project.getService(FilePathResolver.class)::getPathText);
+    }
+
+    EditorFilterIndex(Function<VirtualFile, String> pathText) {
+        this.pathText = pathText;
+    }
+
+    // Only files that appeared since the last pass are indexed; the ones
+    // whose tabs were closed are swept out afterwards
+    void sync(RowStore rows) {
+        // Resolving a path may wait for a read action, which must not
+        // happen while holding the index that the EDT also locks
+        String[] paths = new String[rows.size()];
+
+        for (int i = 0; i < rows.size(); i++) {
+            VirtualFile file = rows.getFile(i);
+
+            if (file != null) {
+                paths[i] = pathText.apply(file);
+            }
+        }
+
+        synchronized (this) {
+            index(rows, paths);
+        }
+    }
+
+    synchronized Set<VirtualFile> match(String pattern) {
+        // Fuzzy and camel-hump matches may skip characters but never invent
+        // them, so a file missing one of the pattern's characters is out
+        long required = signature(pattern.replace(" ", "").replace("*", ""));
+        MinusculeMatcher matcher = NameUtil.buildMatcher("*" + pattern).build();
+        Set<VirtualFile> matches = new HashSet<>();
+
+        // Typing on only ever narrows a match, so while the index is
+        // unchanged an extended pattern is tried on the last matches alone
+        Collection<VirtualFile> candidates = lastMatches != null && pattern.startsWith(lastPattern) ? lastMatches : entries.keySet();
+
+        for (VirtualFile file : candidates) {
+            Entry entry = entries.get(file);
+
+            if ((entry.signature & required) != required) {
+                continue;
+            }
+
+            if (matcher.matches(entry.name) || matcher.matches(entry.path)) {
+                matches.add(file);
+            }
+        }
+
+        lastPattern = pattern;
+        lastMatches = matches;
+
+        return Collections.unmodifiableSet(matches);
+    }
+
+    private void index(RowStore rows, String[] paths) {
+        int pass = ++syncPass;
+        boolean changed = false;
+
+        for (int i = 0; i < rows.size(); i++) {
+            VirtualFile file = rows.getFile(i);
+
+            if (file == null) {
+                continue;
+            }
+
+            Entry entry = entries.get(file);
+            String path = paths[i];
+
+            // A renamed or moved file keeps its identity but not its path
+            if (entry == null || !entry.path.equals(path)) {
+                entry = new Entry(file.getName(), path, signature(file.getName()) | signature(path));
+                entries.put(file, entry);
+                changed = true;
+            }
+
+            entry.seen = pass;
+        }
+
+        Iterator<Entry> it = entries.values().iterator();
+
+        while (it.hasNext()) {
+            if (it.next().seen != pass) {
+                it.remove();
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            lastPattern = null;
+            lastMatches = null;
+        }
+    }
+
+    private static long signature(String text) {
+        long signature = 0;
+        String lower = text.toLowerCase(Locale.ROOT);
+
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+
+            if (c >= 'a' && c <= 'z') {
+                signature |= 1L << (c - 'a');
+            } else if (c >= '0' && c <= '9') {
+                signature |= 1L << (DIGIT_BITS + c - '0');
+            } else {
+                signature |= 1L << OTHER_BIT;
+            }
+        }
+
+        return signature;
+    }
+}
@@ -0,0 +1,14 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.fileEditor.impl.EditorWindow;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.util.List;
+
+// Raw window and tab state copied on the EDT; safe to group on any thread.
+// The fingerprint covers everything the built rows depend on
+record EditorSnapshot(List<WindowState> windows, long fingerprint) {
+
+    record WindowState(EditorWindow window, boolean mainFrame, boolean current, VirtualFile selectedFile, List<VirtualFile> files,
+        List<Boolean> pinned) {}
+}
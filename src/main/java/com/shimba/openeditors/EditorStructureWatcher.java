@@ -0,0 +1,144 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.ex.FileEditorManagerEx;
+import com.intellij.openapi.fileEditor.impl.EditorWindow;
+import com.intellij.openapi.fileEditor.impl.EditorsSplitters;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.tabs.TabInfo;
+import com.intellij.ui.tabs.TabsListener;
+import com.intellij.ui.tabs.impl.JBEditorTabs;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+final class EditorStructureWatcher {
+
+    private static final long STRUCTURE_CHANGE_FLAGS = HierarchyEvent.PARENT_CHANGED | HierarchyEvent.SHOWING_CHANGED;
+
+    private final Project project;
+    private final Disposable parentDisposable;
+    private final Consumer<EditorChangeEvent> onChange;
+    private final Map<EditorWindow, Disposable> windowWatches = new HashMap<>();
+    private final Map<EditorsSplitters, Disposable> splittersWatches = new HashMap<>();
+
+    EditorStructureWatcher(Project project, Disposable parentDisposable, Consumer<EditorChangeEvent> onChange) {
+        this.project = project;
+        this.parentDisposable = parentDisposable;
+        this.onChange = onChange;
+    }
+
+    void sync() {
+        EditorWindow[] windows = getManagerEx().getWindows();
+
+        for (EditorWindow window : windows) {
+            windowWatches.computeIfAbsent(window, this::watchWindow);
+            splittersWatches.computeIfAbsent(window.getOwner(), this::watchSplitters);
+        }
+
+        releaseStale(windowWatches, windows);
+        releaseStale(splittersWatches, windows);
+    }
+
+    private Disposable watchWindow(EditorWindow window) {
+        Disposable watch = Disposer.newDisposable(parentDisposable, "Open Editors window watch");
+        JBEditorTabs tabs = window.getTabbedPane().editorTabs;
+
+        // Tab bar drags and pinning move tabs without any editor manager event
+        tabs.addListener(new TabsListener() {
+            @Override
+            public void tabsMoved() {
+                structureChanged();
+            }
+
+            // Also reports a file closed in one split while still open in
+            // another, which the editor manager does not; as a close it can
+            // be patched into the list instead of rebuilding it
+            @Override
+            public void tabRemoved(@NotNull TabInfo tabToRemove) {
+                if (tabToRemove.getObject() instanceof VirtualFile file) {
+                    onChange.accept(new EditorChangeEvent.FileClosed(file));
+                } else {
+                    structureChanged();
+                }
+            }
+        }, watch);
+
+        // Unsplitting or closing a floating frame detaches the tabs from the hierarchy
+        watchHierarchy(tabs, watch);
+
+        return watch;
+    }
+
+    private Disposable watchSplitters(EditorsSplitters splitters) {
+        Disposable watch = Disposer.newDisposable(parentDisposable, "Open Editors splitters watch");
+
+        ContainerListener containerListener = new ContainerListener() {
+            @Override
+            public void componentAdded(ContainerEvent e) {
+                structureChanged();
+            }
+
+            @Override
+            public void componentRemoved(ContainerEvent e) {
+                structureChanged();
+            }
+        };
+        splitters.addContainerListener(containerListener);
+        Disposer.register(watch, () -> splitters.removeContainerListener(containerListener));
+
+        watchHierarchy(splitters, watch);
+
+        return watch;
+    }
+
+    private void watchHierarchy(Component component, Disposable watch) {
+        HierarchyListener hierarchyListener = e -> {
+            if ((e.getChangeFlags() & STRUCTURE_CHANGE_FLAGS) != 0) {
+                structureChanged();
+            }
+        };
+        component.addHierarchyListener(hierarchyListener);
+        Disposer.register(watch, () -> component.removeHierarchyListener(hierarchyListener));
+    }
+
+    private void structureChanged() {
+        onChange.accept(new EditorChangeEvent.StructureChanged());
+    }
+
+    private static <K> void releaseStale(Map<K, Disposable> watches, EditorWindow[] windows) {
+        watches.entrySet().removeIf(entry -> {
+            if (isReferenced(entry.getKey(), windows)) {
+                return false;
+            }
+
+            Disposer.dispose(entry.getValue());
+
+            return true;
+        });
+    }
+
+    private static boolean isReferenced(Object key, EditorWindow[] windows) {
+        for (EditorWindow window : windows) {
+            if (window == key || window.getOwner() == key) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private FileEditorManagerEx getManagerEx() {
+        return (FileEditorManagerEx) FileEditorManager.getInstance(project);
+    }
+}
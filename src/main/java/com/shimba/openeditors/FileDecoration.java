@@ -0,0 +1,5 @@
+package com.shimba.openeditors;
+
+import java.awt.*;
+
+record FileDecoration(Color scopeColor, Color statusColor) {}
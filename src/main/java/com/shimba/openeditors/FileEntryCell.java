@@ -0,0 +1,316 @@
+package com.shimba.openeditors;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.JBColor;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+
+import javax.swing.*;
+import java.awt.*;
+
+@SuppressWarnings("serial")
+final class FileEntryCell extends JPanel {
+
+    private static final int EXTRA_TEXT_PADDING = 8;
+    private static final Color DROP_INDICATOR_COLOR = JBColor.namedColor("DragAndDrop.borderColor", JBColor.BLUE);
+
+    private final JLabel fileIcon = new JLabel();
+    private final JLabel fileName = new JLabel();
+    private final JLabel filePath = new JLabel();
+    private final ActionIconPanel actionPanel = new ActionIconPanel();
+    private final JPanel westPanel = new JPanel(new GridBagLayout());
+    private final JPanel textPanel = new JPanel(new BorderLayout(0, 1));
+    private final OpenEditorsListState state;
+    private final FileRenderCache renderCache;
+    private final FileIconResolver iconResolver;
+    private final FilePathResolver pathResolver;
+    private final TextTruncator truncator = new TextTruncator();
+
+    private FontMetrics pathMetrics;
+    private JList<?> ownerList;
+    private boolean filePathVisible = true;
+    private boolean dndTop;
+    private boolean dndBottom;
+    private Font nameBaseFont;
+    private FontMetrics nameMetrics;
+    private int availableWidthListWidth = -1;
+    private int availableWidthIconWidth = -1;
+    private int availableWidth;
+
+    FileEntryCell(OpenEditorsListState state, FileRenderCache renderCache, FileIconResolver iconResolver,
+        FilePathResolver pathResolver) {
+        super(new BorderLayout());
+        setOpaque(false);
+
+        this.state = state;
+        this.renderCache = renderCache;
+        this.iconResolver = iconResolver;
+        this.pathResolver = pathResolver;
+
+        westPanel.setOpaque(false);
+        GridBagConstraints iconGbc = new GridBagConstraints();
+        iconGbc.insets = new Insets(0, 4, 0, 8);
+        westPanel.add(fileIcon, iconGbc);
+
+        textPanel.setOpaque(false);
+        filePath.setForeground(JBColor.GRAY);
+        applyStyle();
+        textPanel.add(fileName, BorderLayout.NORTH);
+        textPanel.add(filePath, BorderLayout.SOUTH);
+
+        add(westPanel, BorderLayout.WEST);
+        add(textPanel, BorderLayout.CENTER);
+        add(actionPanel, BorderLayout.EAST);
+    }
+
+    @Override
+    public void updateUI() {
+        super.updateUI();
+
+        // Also reached from the JPanel constructor, before the labels exist
+        if (filePath != null) {
+            applyStyle();
+        }
+    }
+
+    Component render(JList<?> list, ListItem.FileEntry entry, int index, boolean isSelected, boolean cellHasFocus) {
+        this.ownerList = list;
+
+        VirtualFile file = entry.file();
+        String pathText = pathResolver.getPathText(file);
+        fileIcon.setIcon(iconResolver.getIcon(file));
+        applyNameFont(list.getFont());
+
+        String nameText = file.getPresentableName();
+
+        if (list.getWidth() > 0) {
+            truncator.resetIfListWidthChanged(list.getWidth());
+            int availW = computeAvailableTextWidth(list);
+
+            if (availW > 0) {
+                nameText = truncator.truncateFromEnd(nameText, nameMetrics, availW);
+                pathText = truncator.truncateFromStart(pathText, pathMetrics, availW);
+            }
+        }
+
+        fileName.setText(nameText);
+        configurePathDisplay(pathText);
+        configureDropIndicator(list, index);
+
+        boolean isHovered = state.getDropTarget() < 0 && index == state.getHoveredCellIndex();
+
+        applyColors(entry, renderCache.getDecoration(file), isSelected, cellHasFocus, isHovered);
+        configureActionButton(entry, isHovered);
+
+        return this;
+    }
+
+    Component renderPrototype(JList<?> list, String text) {
+        this.ownerList = list;
+
+        fileIcon.setIcon(FileIconResolver.PLACEHOLDER);
+        applyNameFont(list.getFont());
+        fileName.setText(text);
+        configurePathDisplay(text);
+        dndTop = false;
+        dndBottom = false;
+
+        return this;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        Dimension d = super.getPreferredSize();
+
+        if (ownerList != null && ownerList.getWidth() > 0) {
+            d.width = ownerList.getWidth();
+        }
+
+        return d;
+    }
+
+    // Fonts and the border scale with the IDE zoom, and the measurements
+    // taken with the old ones are dropped
+    private void applyStyle() {
+        setBorder(JBUI.Borders.empty(OpenEditorCellRenderer.BORDER_SIZE));
+        filePath.setFont(JBUI.Fonts.smallFont());
+        pathMetrics = filePath.getFontMetrics(filePath.getFont());
+        nameBaseFont = null;
+        availableWidthListWidth = -1;
+    }
+
+    private void applyNameFont(Font baseFont) {
+        if (baseFont != nameBaseFont) {
+            nameBaseFont = baseFont;
+            fileName.setFont(baseFont.deriveFont(Font.PLAIN));
+            nameMetrics = fileName.getFontMetrics(fileName.getFont());
+        }
+    }
+
+    private int computeAvailableTextWidth(JList<?> list) {
+        // The west panel only grows with the icon and the action panel is
+        // fixed, so both are measured once per list width and icon size
+        Icon icon = fileIcon.getIcon();
+        int iconWidth = icon != null ? icon.getIconWidth() : 0;
+
+        if (list.getWidth() != availableWidthListWidth || iconWidth != availableWidthIconWidth) {
+            Insets insets = getInsets();
+            int westW = westPanel.getPreferredSize().width;
+            int eastW = actionPanel.getPreferredSize().width;
+
+            availableWidth = list.getWidth() - westW - eastW - insets.left - insets.right - EXTRA_TEXT_PADDING;
+            availableWidthListWidth = list.getWidth();
+            availableWidthIconWidth = iconWidth;
+        }
+
+        return availableWidth;
+    }
+
+    private void configurePathDisplay(String pathText) {
+        boolean showPath = state.isShowFilePath();
+
+        if (showPath != filePathVisible) {
+            textPanel.remove(fileName);
+            textPanel.add(fileName, showPath ? BorderLayout.NORTH : BorderLayout.CENTER);
+            filePathVisible = showPath;
+        }
+
+        if (showPath) {
+            filePath.setText(pathText);
+            filePath.setVisible(true);
+        } else {
+            filePath.setText("");
+            filePath.setVisible(false);
+        }
+    }
+
+    private void configureDropIndicator(JList<?> list, int index) {
+        int dropTarget = state.getDropTarget();
+        int listSize = list.getModel().getSize();
+
+        dndTop = dropTarget >= 0 && index == dropTarget;
+        dndBottom = dropTarget >= 0 && dropTarget == listSize && index == listSize - 1;
+    }
+
+    private void configureActionButton(ListItem.FileEntry entry, boolean isHovered) {
+        if (entry.pinned()) {
+            actionPanel.setIcon(AllIcons.Actions.PinTab);
+        } else {
+            actionPanel.setIcon(AllIcons.Actions.Close);
+        }
+
+        boolean isHoveredAction = isHovered && state.isActionButtonHovered();
+        actionPanel.setHovered(isHoveredAction);
+    }
+
+    private void applyColors(ListItem.FileEntry entry, FileDecoration decoration, boolean isSelected, boolean cellHasFocus,
+        boolean isHovered) {
+        if (entry.active()) {
+            Color bg = UIUtil.getListSelectionBackground(cellHasFocus);
+            Color fg = UIUtil.getListSelectionForeground(cellHasFocus);
+            setBackground(bg);
+            fileName.setForeground(fg);
+            filePath.setForeground(fg);
+        } else if (isSelected) {
+            // Rows picked for a multi-row drag use the unfocused selection
+            // colors so they stay distinct from the active editor
+            setBackground(UIUtil.getListSelectionBackground(false));
+            fileName.setForeground(UIUtil.getListSelectionForeground(false));
+            filePath.setForeground(JBColor.GRAY);
+        } else {
+            Color scopeBg = decoration != null ? decoration.scopeColor() : null;
+            Color rowBg = scopeBg != null ? scopeBg : (isHovered ? UIUtil.getListBackground() : UIUtil.getTreeBackground());
+            setBackground(rowBg);
+
+            Color vcsColor = decoration != null ? decoration.statusColor() : null;
+            fileName.setForeground(vcsColor != null ? vcsColor : UIUtil.getListForeground());
+            filePath.setForeground(JBColor.GRAY);
+        }
+    }
+
+    // Paints on the graphics handed in by CellRendererPane, which is already
+    // a per-cell copy, and restores the hint instead of creating another one
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        Object antialiasing = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            Color base = ownerList != null ? ownerList.getBackground() : UIUtil.getListBackground();
+
+            int width = getWidth();
+            int height = getHeight();
+
+            g2.setColor(base);
+            g2.fillRect(0, 0, width, height);
+            g2.setColor(getBackground());
+            g2.fillRoundRect(0, 0, width, height, 6, 6);
+
+            paintDropIndicator(g2, width, height);
+        } finally {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+        }
+    }
+
+    private void paintDropIndicator(Graphics2D g2, int width, int height) {
+        if (!dndTop && !dndBottom) {
+            return;
+        }
+
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g2.setColor(DROP_INDICATOR_COLOR);
+
+        if (dndTop) {
+            g2.fillRect(2, 0, width - 4, 2);
+        } else {
+            g2.fillRect(2, height - 2, width - 4, 2);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class ActionIconPanel extends JPanel {
+
+        private static final Color FALLBACK_HOVER_BACKGROUND = new JBColor(new Color(0, 0, 0, 25), new Color(255, 255, 255, 25));
+
+        private final JLabel iconLabel = new JLabel();
+        private boolean hovered;
+
+        ActionIconPanel() {
+            super(new GridBagLayout());
+            setOpaque(false);
+            add(iconLabel);
+        }
+
+        void setIcon(Icon icon) {
+            iconLabel.setIcon(icon);
+        }
+
+        void setHovered(boolean hovered) {
+            this.hovered = hovered;
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(OpenEditorCellRenderer.ACTION_BUTTON_WIDTH, OpenEditorCellRenderer.ACTION_BUTTON_WIDTH);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            if (hovered) {
+                Graphics2D g2 = (Graphics2D) g.create();
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                Color hoverBg = UIManager.getColor("ActionButton.hoverBackground");
+
+                g2.setColor(hoverBg != null ? hoverBg : FALLBACK_HOVER_BACKGROUND);
+                int w = getWidth();
+                int y = (getHeight() - OpenEditorCellRenderer.ACTION_BUTTON_WIDTH) / 2;
+                g2.fillRoundRect(0, y, w, w, w, w);
+                g2.dispose();
+            }
+
+            super.paintComponent(g);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.shimba.openeditors;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.fileTypes.FileTypeEvent;
+import com.intellij.openapi.fileTypes.FileTypeListener;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Detecting the type of a file without a known extension reads its
+// content, so icons are resolved off the EDT and painted once ready
+@Service(Service.Level.PROJECT)
+public final class FileIconResolver implements Disposable {
+
+    static final Icon PLACEHOLDER = AllIcons.FileTypes.Any_type;
+    private static final int MAX_CACHED_ICONS = 2_000;
+
+    private record CachedIcon(Icon icon, int providerVersion) {
+    }
+
+    // Only touched on the EDT: lookups happen while painting and results
+    // are published back there
+    private final Map<VirtualFile, CachedIcon> icons = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<VirtualFile, CachedIcon> eldest) {
+            return size() > MAX_CACHED_ICONS;
+        }
+    };
+    private final Set<VirtualFile> queued = new LinkedHashSet<>();
+    private final Map<VirtualFile, Integer> inFlight = new HashMap<>();
+    private final List<Consumer<Set<VirtualFile>>> resolvedListeners = new CopyOnWriteArrayList<>();
+
+    private int providerVersion;
+
+    public FileIconResolver(Project project) {
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+
+        connection.subscribe(FileTypeManager.TOPIC, new FileTypeListener() {
+            @Override
+            public void fileTypesChanged(@NotNull FileTypeEvent event) {
+                // Cached icons stay on screen until their replacements arrive
+                providerVersion++;
+                inFlight.clear();
+                resolvedListeners.forEach(listener -> listener.accept(Set.copyOf(icons.keySet())));
+            }
+        });
+
+        connection.subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, new FileEditorManagerListener() {
+            @Override
+            public void fileClosed(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+                icons.remove(file);
+            }
+        });
+    }
+
+    Icon getIcon(VirtualFile file) {
+        CachedIcon cached = icons.get(file);
+
+        if (cached != null && cached.providerVersion() == providerVersion) {
+            return cached.icon();
+        }
+
+        enqueue(file);
+
+        return cached != null ? cached.icon() : PLACEHOLDER;
+    }
+
+    void addResolvedListener(Consumer<Set<VirtualFile>> listener, Disposable parentDisposable) {
+        resolvedListeners.add(listener);
+        Disposer.register(parentDisposable, () -> resolvedListeners.remove(listener));
+    }
+
+    @Override
+    public void dispose() {
+        icons.clear();
+        queued.clear();
+        inFlight.clear();
+    }
+
+    private void enqueue(VirtualFile file) {
+        Integer requestedVersion = inFlight.get(file);
+
+        if (requestedVersion != null && requestedVersion == providerVersion) {
+            return;
+        }
+
+        // Every miss of one paint pass goes out in the same batch
+        if (queued.isEmpty()) {
+            SwingUtilities.invokeLater(this::submitQueued);
+        }
+
+        queued.add(file);
+    }
+
+    private void submitQueued() {
+        if (queued.isEmpty()) {
+            return;
+        }
+
+        List<VirtualFile> batch = new ArrayList<>(queued);
+        int version = providerVersion;
+        queued.clear();
+
+        for (VirtualFile file : batch) {
+            inFlight.put(file, version);
+        }
+
+        ReadAction.nonBlocking(() -> resolveIcons(batch))
+            .expireWith(this)
+            .finishOnUiThread(ModalityState.any(), resolved -> publishIcons(batch, version, resolved))
+            .submit(AppExecutorUtil.getAppExecutorService())
+            .onError(error -> SwingUtilities.invokeLater(() -> releaseInFlight(batch, version)));
+    }
+
+    // A cancelled or failed batch must not keep its files marked, or the
+    // next paint would never ask for them again
+    private void releaseInFlight(List<VirtualFile> batch, int version) {
+        for (VirtualFile file : batch) {
+            inFlight.remove(file, version);
+        }
+    }
+
+    private static Map<VirtualFile, Icon> resolveIcons(List<VirtualFile> batch) {
+        Map<VirtualFile, Icon> resolved = new HashMap<>();
+
+        for (VirtualFile file : batch) {
+            Icon icon = file.isValid() ? file.getFileType().getIcon() : null;
+            resolved.put(file, icon != null ? icon : PLACEHOLDER);
+        }
+
+        return resolved;
+    }
+
+    private void publishIcons(List<VirtualFile> batch, int version, Map<VirtualFile, Icon> resolved) {
+        Set<VirtualFile> changed = new LinkedHashSet<>();
+
+        releaseInFlight(batch, version);
+
+        for (VirtualFile file : batch) {
+            // File types changed while this batch ran; a newer one follows
+            if (version != providerVersion) {
+                continue;
+            }
+
+            icons.put(file, new CachedIcon(resolved.get(file), version));
+            changed.add(file);
+        }
+
+        if (!changed.isEmpty()) {
+            resolvedListeners.forEach(listener -> listener.accept(changed));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Paths are shown relative to the project directory, or prefixed with the
+// name of the content or module root they sit in when that is elsewhere
+@Service(Service.Level.PROJECT)
+public final class FilePathResolver implements Disposable {
+
+    private record Roots(ContentRootTrie trie, VirtualFile projectBase) {
+    }
+
+    private final Project project;
+    private final Map<VirtualFile, String> paths = new ConcurrentHashMap<>();
+    private final List<Runnable> invalidationListeners = new CopyOnWriteArrayList<>();
+    private final Object rootsLock = new Object();
+    private volatile Roots roots;
+    private int rootsGeneration;
+
+    public FilePathResolver(Project project) {
+        this.project = project;
+
+        subscribeToRootEvents();
+        subscribeToFileEvents();
+    }
+
+    String getPathText(VirtualFile file) {
+        String path = paths.get(file);
+
+        if (path != null) {
+            return path;
+        }
+
+        // Roots are collected under a read action, which must not be
+        // awaited while holding a lock of the path map
+        Roots current = getRoots();
+        path = paths.computeIfAbsent(file, f -> resolve(f, current.trie(), current.projectBase()));
+
+        // Roots invalidated meanwhile may have been cleared before this
+        // path was stored, so it is not kept for the next call
+        if (roots != current) {
+            paths.remove(file, path);
+        }
+
+        return path;
+    }
+
+    void addInvalidationListener(Runnable listener, Disposable parentDisposable) {
+        invalidationListeners.add(listener);
+        Disposer.register(parentDisposable, () -> invalidationListeners.remove(listener));
+    }
+
+    @Override
+    public void dispose() {
+        paths.clear();
+    }
+
+    static String resolve(VirtualFile file, ContentRootTrie trie, VirtualFile projectBase) {
+        String path = file.getPath();
+        VirtualFile root = trie.outermostRoot(path);
+
+        if (root == null) {
+            return file.getPresentableUrl();
+        }
+
+        int rootLength = root.getPath().length();
+
+        if (path.length() == rootLength) {
+            return root.getName();
+        }
+
+        String relPath = path.substring(rootLength + 1);
+
+        return root.equals(projectBase) ? relPath : root.getName() + "/" + relPath;
+    }
+
+    private Roots getRoots() {
+        Roots current = roots;
+
+        if (current != null) {
+            return current;
+        }
+
+        int generation;
+
+        synchronized (rootsLock) {
+            generation = rootsGeneration;
+        }
+
+        current = ReadAction.compute(this::collectRoots);
+
+        // Collected from a model that changed underneath; still good enough
+        // for this call, but never published over the invalidation
+        synchronized (rootsLock) {
+            if (generation == rootsGeneration) {
+                roots = current;
+            }
+        }
+
+        return current;
+    }
+
+    private Roots collectRoots() {
+        ContentRootTrie trie = new ContentRootTrie();
+        String basePath = project.getBasePath();
+        VirtualFile projectBase = basePath != null ? LocalFileSystem.getInstance().findFileByPath(basePath) : null;
+
+        // Added first so that the project directory keeps its unprefixed
+        // paths when it is also a content root
+        if (projectBase != null) {
+            trie.add(projectBase);
+        }
+
+        ProjectRootManager rootManager = ProjectRootManager.getInstance(project);
+
+        for (VirtualFile root : rootManager.getContentRoots()) {
+            trie.add(root);
+        }
+
+        for (VirtualFile root : rootManager.getContentSourceRoots()) {
+            trie.add(root);
+        }
+
+        for (Module module : ModuleManager.getInstance(project).getModules()) {
+            VirtualFile moduleDir = ProjectUtil.guessModuleDir(module);
+
+            if (moduleDir != null) {
+                trie.add(moduleDir);
+            }
+        }
+
+        return new Roots(trie, projectBase);
+    }
+
+    private void subscribeToRootEvents() {
+        project.getMessageBus().connect(this).subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                invalidateAll();
+            }
+        });
+    }
+
+    private void subscribeToFileEvents() {
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                handleVfsEvents(events);
+            }
+        });
+
+        connection.subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, new FileEditorManagerListener() {
+            @Override
+            public void fileClosed(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+                paths.remove(file);
+            }
+        });
+    }
+
+    private void handleVfsEvents(List<? extends VFileEvent> events) {
+        boolean changed = false;
+
+        for (VFileEvent event : events) {
+            if (!isPathChange(event)) {
+                continue;
+            }
+
+            VirtualFile file = event.getFile();
+
+            if (file.isDirectory()) {
+                // Every cached path below a renamed or moved directory is
+                // stale, and the directory may have been one of the roots
+                invalidateAll();
+
+                return;
+            }
+
+            changed |= paths.remove(file) != null;
+        }
+
+        if (changed) {
+            notifyInvalidated();
+        }
+    }
+
+    static boolean isPathChange(VFileEvent event) {
+        if (event instanceof VFilePropertyChangeEvent propertyEvent) {
+            return propertyEvent.isRename();
+        }
+
+        return event instanceof VFileMoveEvent || event instanceof VFileDeleteEvent;
+    }
+
+    private void invalidateAll() {
+        synchronized (rootsLock) {
+            rootsGeneration++;
+            roots = null;
+        }
+
+        paths.clear();
+        notifyInvalidated();
+    }
+
+    private void notifyInvalidated() {
+        for (Runnable listener : invalidationListeners) {
+            listener.run();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vcs.FileStatus;
+import com.intellij.openapi.vcs.FileStatusListener;
+import com.intellij.openapi.vcs.FileStatusManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.openapi.wm.ex.ToolWindowManagerListener;
+import com.intellij.packageDependencies.DependencyValidationManager;
+import com.intellij.psi.search.scope.packageSet.NamedScopeManager;
+import com.intellij.psi.search.scope.packageSet.NamedScopesHolder;
+import com.intellij.ui.FileColorManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+@Service(Service.Level.PROJECT)
+public final class FileRenderCache implements Disposable {
+
+    private final Project project;
+    private final Map<VirtualFile, FileDecoration> decorations = new ConcurrentHashMap<>();
+    private final Map<VirtualFile, Long> pendingDecorations = new ConcurrentHashMap<>();
+    private final AtomicLong decorationStamp = new AtomicLong();
+    private final List<Runnable> invalidationListeners = new CopyOnWriteArrayList<>();
+    private volatile BooleanSupplier shown = () -> false;
+    private volatile boolean missedWhileHidden;
+
+    public FileRenderCache(Project project) {
+        this.project = project;
+
+        subscribeToFileEvents();
+        subscribeToStatusEvents();
+        subscribeToColorEvents();
+    }
+
+    // Null until the decoration pass has reached the file; the row is then
+    // painted with the plain list colors
+    FileDecoration getDecoration(VirtualFile file) {
+        return decorations.get(file);
+    }
+
+    // Status and scope lookups can block behind indexing or a VCS refresh,
+    // so the files not yet decorated are resolved in one background batch
+    void decorate(List<VirtualFile> files) {
+        List<VirtualFile> batch = new ArrayList<>();
+
+        for (VirtualFile file : files) {
+            if (!decorations.containsKey(file) && !pendingDecorations.containsKey(file)) {
+                batch.add(file);
+            }
+        }
+
+        submitDecorations(batch);
+    }
+
+    void addInvalidationListener(Runnable listener, Disposable parentDisposable) {
+        invalidationListeners.add(listener);
+        Disposer.register(parentDisposable, () -> invalidationListeners.remove(listener));
+    }
+
+    // Redecorating is refresh work too, so while the panel is hidden a
+    // change is only noted and every file is redecorated once it is shown
+    void trackVisibility(ToolWindow toolWindow) {
+        Disposable parentDisposable = toolWindow.getDisposable();
+        shown = toolWindow::isVisible;
+        Disposer.register(parentDisposable, () -> shown = () -> false);
+
+        project.getMessageBus().connect(parentDisposable).subscribe(
+            ToolWindowManagerListener.TOPIC, new ToolWindowManagerListener() {
+                @Override
+                public void stateChanged(@NotNull ToolWindowManager toolWindowManager) {
+                    if (missedWhileHidden && shown.getAsBoolean()) {
+                        missedWhileHidden = false;
+                        redecorateAll();
+                    }
+                }
+            }
+        );
+    }
+
+    @Override
+    public void dispose() {
+        decorations.clear();
+    }
+
+    private void submitDecorations(List<VirtualFile> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // The read action restarts instead of blocking a write action, and
+        // the stamp keeps an older batch from overwriting a newer result
+        long stamp = decorationStamp.incrementAndGet();
+
+        for (VirtualFile file : batch) {
+            pendingDecorations.put(file, stamp);
+        }
+
+        ReadAction.nonBlocking(() -> resolveDecorations(batch))
+            .expireWith(this)
+            .finishOnUiThread(ModalityState.any(), resolved -> publishDecorations(batch, stamp, resolved))
+            .submit(AppExecutorUtil.getAppExecutorService())
+            .onError(error -> releasePending(batch, stamp));
+    }
+
+    // A cancelled or failed batch must not leave its files pending, or
+    // they would never be decorated again
+    private void releasePending(List<VirtualFile> batch, long stamp) {
+        for (VirtualFile file : batch) {
+            pendingDecorations.remove(file, stamp);
+        }
+    }
+
+    private Map<VirtualFile, FileDecoration> resolveDecorations(List<VirtualFile> batch) {
+        FileColorManager colorManager = FileColorManager.getInstance(project);
+        FileStatusManager statusManager = FileStatusManager.getInstance(project);
+        Map<VirtualFile, FileDecoration> resolved = new HashMap<>();
+
+        for (VirtualFile file : batch) {
+            if (!file.isValid()) {
+                continue;
+            }
+
+            FileStatus status = statusManager.getStatus(file);
+            Color statusColor = status != null ? status.getColor() : null;
+            resolved.put(file, new FileDecoration(colorManager.getFileColor(file), statusColor));
+        }
+
+        return resolved;
+    }
+
+    private void publishDecorations(List<VirtualFile> batch, long stamp, Map<VirtualFile, FileDecoration> resolved) {
+        for (VirtualFile file : batch) {
+            // Closed since, or already queued again in a newer batch
+            if (!pendingDecorations.remove(file, stamp)) {
+                continue;
+            }
+
+            FileDecoration decoration = resolved.get(file);
+
+            if (decoration != null) {
+                decorations.put(file, decoration);
+            } else {
+                decorations.remove(file);
+            }
+        }
+
+        notifyInvalidated();
+    }
+
+    // The old decoration stays on screen until its replacement arrives
+    private void redecorate(List<VirtualFile> files) {
+        if (files.isEmpty()) {
+            return;
+        }
+
+        if (!shown.getAsBoolean()) {
+            missedWhileHidden = true;
+
+            return;
+        }
+
+        submitDecorations(files);
+    }
+
+    private void redecorateAll() {
+        Set<VirtualFile> files = new HashSet<>(decorations.keySet());
+        files.addAll(pendingDecorations.keySet());
+        redecorate(new ArrayList<>(files));
+    }
+
+    private boolean isDecorated(VirtualFile file) {
+        return decorations.containsKey(file) || pendingDecorations.containsKey(file);
+    }
+
+    private void subscribeToFileEvents() {
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                handleVfsEvents(events);
+            }
+        });
+
+        connection.subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, new FileEditorManagerListener() {
+            @Override
+            public void fileClosed(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+                decorations.remove(file);
+                pendingDecorations.remove(file);
+            }
+        });
+    }
+
+    private void subscribeToStatusEvents() {
+        FileStatusManager.getInstance(project).addFileStatusListener(new FileStatusListener() {
+            @Override
+            public void fileStatusesChanged() {
+                redecorateAll();
+            }
+
+            @Override
+            public void fileStatusChanged(@NotNull VirtualFile virtualFile) {
+                if (isDecorated(virtualFile)) {
+                    redecorate(List.of(virtualFile));
+                }
+            }
+        }, this);
+    }
+
+    private void subscribeToColorEvents() {
+        // File colors are resolved through named scopes, so scope edits
+        // and color scheme switches both change the scope background
+        NamedScopesHolder.ScopeListener scopeListener = this::redecorateAll;
+        NamedScopeManager.getInstance(project).addScopeListener(scopeListener, this);
+        DependencyValidationManager.getInstance(project).addScopeListener(scopeListener, this);
+
+        ApplicationManager.getApplication().getMessageBus().connect(this).subscribe(
+            EditorColorsManager.TOPIC, scheme -> redecorateAll()
+        );
+    }
+
+    private void handleVfsEvents(List<? extends VFileEvent> events) {
+        List<VirtualFile> moved = new ArrayList<>();
+
+        for (VFileEvent event : events) {
+            if (!FilePathResolver.isPathChange(event)) {
+                continue;
+            }
+
+            VirtualFile file = event.getFile();
+
+            // A new location may fall into another scope
+            if (file.isDirectory()) {
+                redecorateAll();
+
+                return;
+            }
+
+            if (isDecorated(file)) {
+                moved.add(file);
+            }
+        }
+
+        redecorate(moved);
+    }
+
+    private void notifyInvalidated() {
+        for (Runnable listener : invalidationListeners) {
+            listener.run();
+        }
+    }
+}
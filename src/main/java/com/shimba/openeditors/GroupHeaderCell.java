@@ -0,0 +1,63 @@
+package com.shimba.openeditors;
+
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+
+import javax.swing.*;
+import java.awt.*;
+
+@SuppressWarnings("serial")
+final class GroupHeaderCell extends JPanel {
+
+    private final JLabel headerLabel = new JLabel();
+
+    private JList<?> ownerList;
+
+    GroupHeaderCell() {
+        super(new BorderLayout());
+        setOpaque(false);
+        applyStyle();
+        add(headerLabel, BorderLayout.WEST);
+    }
+
+    @Override
+    public void updateUI() {
+        super.updateUI();
+
+        // Also reached from the JPanel constructor, before the label exists
+        if (headerLabel != null) {
+            applyStyle();
+        }
+    }
+
+    Component render(JList<?> list, ListItem.GroupHeader header) {
+        this.ownerList = list;
+        headerLabel.setText(header.title());
+
+        return this;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        Dimension d = super.getPreferredSize();
+
+        if (ownerList != null && ownerList.getWidth() > 0) {
+            d.width = ownerList.getWidth();
+        }
+
+        return d;
+    }
+
+    private void applyStyle() {
+        setBorder(JBUI.Borders.empty(4, 8));
+        headerLabel.setFont(JBUI.Fonts.label().asBold());
+        headerLabel.setForeground(UIUtil.getLabelDisabledForeground());
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Color base = ownerList != null ? ownerList.getBackground() : UIUtil.getListBackground();
+        g.setColor(base);
+        g.fillRect(0, 0, getWidth(), getHeight());
+    }
+}
@@ -2,7 +2,6 @@ package com.shimba.openeditors;
 
 import com.intellij.ui.components.JBList;
 
-import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -11,12 +10,10 @@ import java.awt.event.MouseMotionAdapter;
 final class HoverHandler {
 
     private final JBList<ListItem> fileList;
-    private final DefaultListModel<ListItem> listModel;
     private final OpenEditorsListState state;
 
-    HoverHandler(JBList<ListItem> fileList, DefaultListModel<ListItem> listModel, OpenEditorsListState state) {
+    HoverHandler(JBList<ListItem> fileList, OpenEditorsListState state) {
         this.fileList = fileList;
-        this.listModel = listModel;
         this.state = state;
     }
 
@@ -44,7 +41,7 @@ final class HoverHandler {
             Rectangle bounds = fileList.getCellBounds(index, index);
 
             if (bounds != null && bounds.contains(e.getPoint())) {
-                ListItem item = listModel.getElementAt(index);
+                ListItem item = fileList.getModel().getElementAt(index);
                 if (item instanceof ListItem.GroupHeader) {
                     index = -1;
                 } else {
@@ -55,18 +52,26 @@ final class HoverHandler {
             }
         }
 
-        if (index != state.getHoveredCellIndex() || overAction != state.isActionButtonHovered()) {
+        int previous = state.getHoveredCellIndex();
+
+        if (index != previous || overAction != state.isActionButtonHovered()) {
             state.setHoveredCellIndex(index);
             state.setActionButtonHovered(overAction);
-            fileList.repaint();
+            ListRepaint.row(fileList, previous);
+
+            if (index != previous) {
+                ListRepaint.row(fileList, index);
+            }
         }
     }
 
     private void handleMouseExited() {
-        if (state.getHoveredCellIndex() != -1 || state.isActionButtonHovered()) {
+        int previous = state.getHoveredCellIndex();
+
+        if (previous != -1 || state.isActionButtonHovered()) {
             state.setHoveredCellIndex(-1);
             state.setActionButtonHovered(false);
-            fileList.repaint();
+            ListRepaint.row(fileList, previous);
         }
     }
 }
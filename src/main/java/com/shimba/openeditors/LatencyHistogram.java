@@ -0,0 +1,74 @@
+package com.shimba.openeditors;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Durations counted in power-of-two microsecond buckets: coarse, but lock
+// free and cheap enough to record every painted cell
+final class LatencyHistogram {
+
+    // Bucket 0 holds sub-microsecond samples, bucket i those below 2^i us,
+    // and the last one everything from about four seconds up
+    static final int BUCKETS = 24;
+
+    record Summary(long count, double meanMicros, long p50Micros, long p95Micros, long p99Micros, long maxMicros,
+        long[] buckets) {
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    Summary summarize() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        long maxMicros = maxNanos.get() / 1_000;
+        double meanMicros = total > 0 ? totalNanos.sum() / 1_000.0 / total : 0;
+
+        return new Summary(total, meanMicros, percentile(counts, total, 0.50, maxMicros),
+            percentile(counts, total, 0.95, maxMicros), percentile(counts, total, 0.99, maxMicros), maxMicros, counts);
+    }
+
+    static long bucketUpperMicros(int bucket) {
+        return 1L << bucket;
+    }
+
+    // The upper edge of the bucket holding the percentile, never above the
+    // largest sample actually seen
+    private static long percentile(long[] counts, long total, double fraction, long maxMicros) {
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= rank) {
+                return Math.min(bucketUpperMicros(i), maxMicros);
+            }
+        }
+
+        return maxMicros;
+    }
+}
@@ -29,6 +29,11 @@ final class ListHitTest {
         return new HitResult(index, bounds);
     }
 
+    // Shift and Ctrl (Cmd on macOS) clicks only change the list selection
+    static boolean isSelectionGesture(MouseEvent e) {
+        return e.isShiftDown() || (e.getModifiersEx() & Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()) != 0;
+    }
+
     static boolean isOverActionButton(MouseEvent e, Rectangle bounds) {
         int actionX = bounds.x + bounds.width - OpenEditorCellRenderer.ACTION_BUTTON_WIDTH;
 
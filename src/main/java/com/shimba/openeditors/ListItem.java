@@ -7,12 +7,19 @@ public sealed interface ListItem {
 
     boolean structurallyEquals(ListItem other);
 
+    boolean sameIdentity(ListItem other);
+
     record GroupHeader(String title, EditorWindow window) implements ListItem {
 
         @Override
         public boolean structurallyEquals(ListItem other) {
             return other instanceof GroupHeader g && title.equals(g.title) && window == g.window;
         }
+
+        @Override
+        public boolean sameIdentity(ListItem other) {
+            return other instanceof GroupHeader g && window == g.window;
+        }
     }
 
     record FileEntry(VirtualFile file, boolean pinned, boolean active, EditorWindow window) implements ListItem {
@@ -21,5 +28,10 @@ public sealed interface ListItem {
         public boolean structurallyEquals(ListItem other) {
             return other instanceof FileEntry e && file.equals(e.file) && pinned == e.pinned && active == e.active && window == e.window;
         }
+
+        @Override
+        public boolean sameIdentity(ListItem other) {
+            return other instanceof FileEntry e && file.equals(e.file) && window == e.window;
+        }
     }
 }
@@ -0,0 +1,145 @@
+package com.shimba.openeditors;
+
+import javax.swing.*;
+import java.util.List;
+
+final class ListModelDiff {
+
+    // Upper bound for the LCS table over the changed middle section;
+    // larger edits fall back to overwriting that section row by row
+    private static final long MAX_LCS_CELLS = 250_000;
+
+    private ListModelDiff() {
+    }
+
+    static void apply(DefaultListModel<ListItem> model, List<ListItem> items) {
+        int oldSize = model.getSize();
+        int newSize = items.size();
+
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && model.get(prefix).sameIdentity(items.get(prefix))) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+            && model.get(oldSize - 1 - suffix).sameIdentity(items.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        // Suffix rows first, while their indices are still unaffected by the middle edits
+        for (int k = 0; k < suffix; k++) {
+            setIfChanged(model, oldSize - 1 - k, items.get(newSize - 1 - k));
+        }
+
+        for (int i = 0; i < prefix; i++) {
+            setIfChanged(model, i, items.get(i));
+        }
+
+        int oldMid = oldSize - prefix - suffix;
+        int newMid = newSize - prefix - suffix;
+
+        if (oldMid == 0 && newMid == 0) {
+            return;
+        }
+
+        List<ListItem> incoming = items.subList(prefix, prefix + newMid);
+
+        if ((long) (oldMid + 1) * (newMid + 1) > MAX_LCS_CELLS) {
+            overwrite(model, prefix, oldMid, incoming);
+        } else {
+            patch(model, prefix, oldMid, incoming);
+        }
+    }
+
+    private static void patch(DefaultListModel<ListItem> model, int offset, int oldMid, List<ListItem> incoming) {
+        ListItem[] existing = new ListItem[oldMid];
+
+        for (int i = 0; i < oldMid; i++) {
+            existing[i] = model.get(offset + i);
+        }
+
+        int newMid = incoming.size();
+        int[] lcs = lcsTable(existing, incoming);
+        int width = newMid + 1;
+
+        int row = offset;
+        int i = 0;
+        int j = 0;
+
+        while (i < oldMid || j < newMid) {
+            if (i < oldMid && j < newMid && existing[i].sameIdentity(incoming.get(j))) {
+                setIfChanged(model, row, incoming.get(j));
+                row++;
+                i++;
+                j++;
+            } else if (j < newMid && (i == oldMid || lcs[i * width + j + 1] >= lcs[(i + 1) * width + j])) {
+                int insertEnd = j + 1;
+
+                while (insertEnd < newMid && !startsMatch(existing, i, incoming, insertEnd)
+                    && (i == oldMid || lcs[i * width + insertEnd + 1] >= lcs[(i + 1) * width + insertEnd])) {
+                    insertEnd++;
+                }
+
+                model.addAll(row, incoming.subList(j, insertEnd));
+                row += insertEnd - j;
+                j = insertEnd;
+            } else {
+                int removeEnd = i + 1;
+
+                while (removeEnd < oldMid && !startsMatch(existing, removeEnd, incoming, j)
+                    && (j == newMid || lcs[removeEnd * width + j + 1] < lcs[(removeEnd + 1) * width + j])) {
+                    removeEnd++;
+                }
+
+                model.removeRange(row, row + (removeEnd - i) - 1);
+                i = removeEnd;
+            }
+        }
+    }
+
+    private static boolean startsMatch(ListItem[] existing, int i, List<ListItem> incoming, int j) {
+        return i < existing.length && j < incoming.size() && existing[i].sameIdentity(incoming.get(j));
+    }
+
+    // lcs[i * width + j] holds the LCS length of existing[i..] and incoming[j..]
+    private static int[] lcsTable(ListItem[] existing, List<ListItem> incoming) {
+        int oldMid = existing.length;
+        int newMid = incoming.size();
+        int width = newMid + 1;
+        int[] lcs = new int[(oldMid + 1) * width];
+
+        for (int i = oldMid - 1; i >= 0; i--) {
+            for (int j = newMid - 1; j >= 0; j--) {
+                if (existing[i].sameIdentity(incoming.get(j))) {
+                    lcs[i * width + j] = lcs[(i + 1) * width + j + 1] + 1;
+                } else {
+                    lcs[i * width + j] = Math.max(lcs[(i + 1) * width + j], lcs[i * width + j + 1]);
+                }
+            }
+        }
+
+        return lcs;
+    }
+
+    private static void overwrite(DefaultListModel<ListItem> model, int offset, int oldMid, List<ListItem> incoming) {
+        int newMid = incoming.size();
+        int common = Math.min(oldMid, newMid);
+
+        for (int i = 0; i < common; i++) {
+            setIfChanged(model, offset + i, incoming.get(i));
+        }
+
+        if (newMid > oldMid) {
+            model.addAll(offset + common, incoming.subList(common, newMid));
+        } else if (oldMid > newMid) {
+            model.removeRange(offset + common, offset + oldMid - 1);
+        }
+    }
+
+    private static void setIfChanged(DefaultListModel<ListItem> model, int index, ListItem item) {
+        if (!model.get(index).structurallyEquals(item)) {
+            model.set(index, item);
+        }
+    }
+}
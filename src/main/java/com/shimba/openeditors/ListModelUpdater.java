@@ -1,87 +1,409 @@
 package com.shimba.openeditors;
 
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.impl.EditorWindow;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ui.components.JBList;
+import com.intellij.util.concurrency.AppExecutorUtil;
 
 import javax.swing.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 final class ListModelUpdater {
 
+    private static final Logger LOG = Logger.getInstance(ListModelUpdater.class);
+
+    // A single worker keeps builds in capture order
+    private static final ExecutorService BUILD_EXECUTOR =
+        AppExecutorUtil.createBoundedApplicationPoolExecutor("Open Editors List Builder", 1);
+
+    // Above this many rows the list is served by VirtualListModel instead
+    // of being flattened into a DefaultListModel and diffed row by row
+    static final String VIRTUALIZE_THRESHOLD_KEY = "openEditors.virtualizeThreshold";
+    private static final int DEFAULT_VIRTUALIZE_THRESHOLD = 1000;
+    private static final int VIRTUALIZE_HYSTERESIS_DIVISOR = 10;
+
+    private final Project project;
     private final JBList<ListItem> fileList;
     private final DefaultListModel<ListItem> listModel;
+    private final VirtualListModel virtualModel = new VirtualListModel();
+    private final RowStore emptyRows = new RowStore();
     private final OpenEditorsDataService dataService;
+    private final ListRowIndex rowIndex;
+    private final EditorFilterIndex filterIndex;
+    private final FileRenderCache renderCache;
+    private final OpenEditorsMetrics metrics;
+
+    // Stores are only handed out and returned on the EDT. The front one
+    // mirrors the shown model and the spares get refilled by the builder
+    private final Deque<RowStore> spareRows = new ArrayDeque<>();
+    private RowStore frontRows = new RowStore();
+    private boolean frontRowsCurrent = true;
 
-    ListModelUpdater(JBList<ListItem> fileList, DefaultListModel<ListItem> listModel, OpenEditorsDataService dataService) {
+    private int generation;
+    private int appliedGeneration;
+    private String filter;
+
+    ListModelUpdater(Project project, JBList<ListItem> fileList, DefaultListModel<ListItem> listModel, ListRowIndex rowIndex,
+        OpenEditorsDataService dataService) {
+        this.project = project;
         this.fileList = fileList;
         this.listModel = listModel;
+        this.rowIndex = rowIndex;
         this.dataService = dataService;
+        this.filterIndex = new EditorFilterIndex(project);
+        this.renderCache = project.getService(FileRenderCache.class);
+        this.metrics = project.getService(OpenEditorsMetrics.class);
+    }
+
+    void setFilter(String text) {
+        String pattern = text.strip();
+        String newFilter = pattern.isEmpty() ? null : pattern;
+
+        if (!Objects.equals(newFilter, filter)) {
+            filter = newFilter;
+            refresh();
+        }
     }
 
     void refresh() {
-        List<EditorGroup> groups = dataService.getEditorGroups();
-        List<ListItem> items = dataService.buildListItems(groups);
+        refresh(changed -> {}, false);
+    }
+
+    void applyChanges(List<EditorChangeEvent> events) {
+        // While a build is in flight its snapshot may predate the events,
+        // so patching the model would race with the incoming result
+        if (appliedGeneration != generation || !tryPatch(events)) {
+            refresh();
+        }
+    }
+
+    void applyGroupOrder(int groupStart, List<ListItem> rows) {
+        if (fileList.getModel() != listModel || appliedGeneration != generation) {
+            refresh();
 
-        if (isListUnchanged(items)) {
             return;
         }
 
-        updateModel(items);
-        scrollToActive(items);
+        for (int i = 0; i < rows.size(); i++) {
+            if (listModel.getElementAt(groupStart + i) != rows.get(i)) {
+                listModel.set(groupStart + i, rows.get(i));
+            }
+        }
+
+        // The front rows no longer mirror the patched model
+        appliedGeneration = ++generation;
+        frontRowsCurrent = false;
         fileList.clearSelection();
     }
 
+    void refresh(Consumer<Boolean> onApplied, boolean fullCompare) {
+        long startNanos = System.nanoTime();
+
+        // Only the raw tab state is read on the EDT; grouping and list
+        // building run on the pool and the result comes back here
+        EditorSnapshot snapshot = dataService.captureSnapshot();
+        int threshold = getVirtualizeThreshold();
+
+        // The shown rows were built from identical state. Bumping the
+        // generation still retires any build in flight for older state
+        if (!fullCompare && matchesFrontRows(snapshot.fingerprint(), threshold)) {
+            appliedGeneration = ++generation;
+            metrics.increment(OpenEditorsMetrics.Counter.FINGERPRINT_HITS);
+            metrics.record(OpenEditorsMetrics.Timing.REFRESH, startNanos);
+            onApplied.accept(false);
+
+            return;
+        }
+
+        int requested = ++generation;
+        RowStore rows = takeSpareRows();
+        String rowFilter = filter;
+
+        BUILD_EXECUTOR.execute(() -> {
+            fillRows(snapshot, rows, rowFilter);
+            ApplicationManager.getApplication().invokeLater(
+                () -> apply(requested, rows, threshold, onApplied, startNanos), project.getDisposed()
+            );
+        });
+    }
+
     void forceRefresh() {
-        List<EditorGroup> groups = dataService.getEditorGroups();
-        List<ListItem> items = dataService.buildListItems(groups);
-        updateModel(items);
-        scrollToActive(items);
+        long startNanos = System.nanoTime();
+        appliedGeneration = ++generation;
+
+        RowStore rows = takeSpareRows();
+        fillRows(dataService.captureSnapshot(), rows, filter);
+        frontRowsCurrent = false;
+        show(rows, getVirtualizeThreshold());
+
+        relayoutAll();
+        scrollToActive();
         fileList.clearSelection();
+        metrics.record(OpenEditorsMetrics.Timing.FORCE_REFRESH, startNanos);
     }
 
-    private boolean isListUnchanged(List<ListItem> items) {
-        if (listModel.getSize() != items.size()) {
-            return false;
+    private void fillRows(EditorSnapshot snapshot, RowStore rows, String rowFilter) {
+        long startNanos = System.nanoTime();
+        dataService.fillRows(snapshot, rows);
+        rows.setFilter(rowFilter);
+
+        // The index follows every build, filtered or not, so that the
+        // first keystroke only has to match against it
+        filterIndex.sync(rows);
+
+        if (rowFilter != null) {
+            rows.retainFiles(filterIndex.match(rowFilter)::contains);
         }
 
-        for (int i = 0; i < listModel.getSize(); i++) {
-            ListItem existing = listModel.getElementAt(i);
-            ListItem incoming = items.get(i);
+        metrics.record(OpenEditorsMetrics.Timing.ROW_BUILD, startNanos);
+    }
+
+    private void apply(int requested, RowStore rows, int threshold, Consumer<Boolean> onApplied, long startNanos) {
+        // A newer capture is already on its way; this result is stale
+        if (requested != generation) {
+            recycle(rows);
+
+            return;
+        }
+
+        appliedGeneration = requested;
+
+        boolean changed = show(rows, threshold);
+
+        if (changed) {
+            scrollToActive();
+            fileList.clearSelection();
+        }
+
+        // From the capture to the shown result, including time queued
+        // behind other builds and on the EDT
+        metrics.record(OpenEditorsMetrics.Timing.REFRESH, startNanos);
+        onApplied.accept(changed);
+    }
+
+    private boolean show(RowStore rows, int threshold) {
+        boolean virtual = isVirtual(rows.size(), threshold);
+        boolean sameMode = virtual == (fileList.getModel() == virtualModel);
+
+        if (sameMode) {
+            // After an in-place patch the front rows are behind the flat
+            // model, which is then compared directly; only the virtual
+            // model is never patched
+            boolean unchanged = frontRowsCurrent ? rows.contentEquals(frontRows) : !virtual && rows.contentEquals(listModel);
+
+            if (unchanged) {
+                // Adopting the new rows carries over their filter and
+                // fingerprint, so the next refresh can take the shortcut
+                recycle(frontRows);
+                frontRows = rows;
+                frontRowsCurrent = true;
 
-            if (!existing.structurallyEquals(incoming)) {
                 return false;
             }
+
+            if (frontRowsCurrent && rows.getFingerprint() == frontRows.getFingerprint()
+                && Objects.equals(rows.getFilter(), frontRows.getFilter())) {
+                LOG.warn("Open editors fingerprint matched a different row list");
+            }
         }
 
+        if (virtual) {
+            virtualModel.setRows(rows);
+
+            // The flat model is emptied so that switching back starts from
+            // a clean diff instead of one against long outdated rows
+            if (fileList.getModel() != virtualModel) {
+                fileList.setModel(virtualModel);
+                listModel.clear();
+            }
+        } else {
+            updateModel(rows.toItems());
+
+            if (fileList.getModel() != listModel) {
+                fileList.setModel(listModel);
+                virtualModel.setRows(emptyRows);
+            }
+        }
+
+        recycle(frontRows);
+        frontRows = rows;
+        frontRowsCurrent = true;
+        requestDecorations(rows);
+
         return true;
     }
 
-    private void updateModel(List<ListItem> items) {
-        int oldSize = listModel.getSize();
-        int newSize = items.size();
-        int common = Math.min(oldSize, newSize);
+    private boolean matchesFrontRows(long fingerprint, int threshold) {
+        boolean virtual = isVirtual(frontRows.size(), threshold);
 
-        for (int i = 0; i < common; i++) {
-            listModel.set(i, items.get(i));
+        return frontRowsCurrent && fingerprint == frontRows.getFingerprint() && Objects.equals(filter, frontRows.getFilter())
+            && virtual == (fileList.getModel() == virtualModel);
+    }
+
+    // Switching models replays every row into the other one, so the list
+    // only goes back to flat once it is clearly below the threshold; a
+    // single tab opened and closed around it does not flip the model
+    private boolean isVirtual(int rowCount, int threshold) {
+        if (fileList.getModel() == virtualModel) {
+            return rowCount >= threshold - threshold / VIRTUALIZE_HYSTERESIS_DIVISOR;
         }
 
-        if (newSize > oldSize) {
-            for (int i = oldSize; i < newSize; i++) {
-                listModel.addElement(items.get(i));
+        return rowCount >= threshold;
+    }
+
+    private void requestDecorations(RowStore rows) {
+        List<VirtualFile> files = new ArrayList<>(rows.size());
+
+        for (int i = 0; i < rows.size(); i++) {
+            if (!rows.isHeader(i)) {
+                files.add(rows.getFile(i));
             }
-        } else if (oldSize > newSize) {
-            for (int i = oldSize - 1; i >= newSize; i--) {
-                listModel.remove(i);
+        }
+
+        renderCache.decorate(files);
+    }
+
+    private RowStore takeSpareRows() {
+        RowStore rows = spareRows.poll();
+
+        return rows != null ? rows : new RowStore();
+    }
+
+    private void recycle(RowStore rows) {
+        rows.clear();
+        spareRows.push(rows);
+    }
+
+    private int getVirtualizeThreshold() {
+        return PropertiesComponent.getInstance(project).getInt(VIRTUALIZE_THRESHOLD_KEY, DEFAULT_VIRTUALIZE_THRESHOLD);
+    }
+
+    private boolean tryPatch(List<EditorChangeEvent> events) {
+        // Patches edit the flat model in place; the virtual one is rebuilt,
+        // and so is a filtered one, where closing a tab can empty a group
+        if (fileList.getModel() != listModel || filter != null) {
+            return false;
+        }
+
+        for (EditorChangeEvent event : events) {
+            if (!(event instanceof EditorChangeEvent.SelectionChanged) && !(event instanceof EditorChangeEvent.FileClosed)) {
+                return false;
             }
         }
+
+        for (EditorChangeEvent event : events) {
+            if (event instanceof EditorChangeEvent.FileClosed closed && !removeClosedRows(closed.file())) {
+                return false;
+            }
+        }
+
+        // A tab dragged to another split closes in one window and opens in
+        // the other without an open event; only a rebuild adds its new row
+        if (listModel.getSize() != dataService.countRows()) {
+            return false;
+        }
+
+        if (events.stream().anyMatch(EditorChangeEvent.SelectionChanged.class::isInstance) && !moveActiveRow()) {
+            return false;
+        }
+
+        // The front rows no longer mirror the patched model
+        appliedGeneration = ++generation;
+        frontRowsCurrent = false;
+        fileList.clearSelection();
+        metrics.increment(OpenEditorsMetrics.Counter.MODEL_PATCHES);
+
+        return true;
     }
 
-    private void scrollToActive(List<ListItem> items) {
-        for (int i = 0; i < items.size(); i++) {
-            if (items.get(i) instanceof ListItem.FileEntry fe && fe.active()) {
-                int idx = i;
-                SwingUtilities.invokeLater(() -> fileList.ensureIndexIsVisible(idx));
-                return;
+    private boolean removeClosedRows(VirtualFile file) {
+        List<Integer> closedRows = new ArrayList<>();
+
+        for (int i = 0; i < listModel.getSize(); i++) {
+            if (listModel.getElementAt(i) instanceof ListItem.FileEntry fe && fe.file().equals(file)) {
+                EditorWindow window = fe.window();
+
+                if (!window.isDisposed() && window.isFileOpen(file)) {
+                    continue;
+                }
+
+                // Emptying a window drops its group, and possibly every
+                // header, which only a rebuild lays out correctly
+                if (window.isDisposed() || window.getFileList().isEmpty()) {
+                    return false;
+                }
+
+                closedRows.add(i);
             }
         }
+
+        for (int i = closedRows.size() - 1; i >= 0; i--) {
+            listModel.remove(closedRows.get(i).intValue());
+        }
+
+        return true;
+    }
+
+    private boolean moveActiveRow() {
+        // The event only says that something changed; the editor manager
+        // is asked for the current window and file to land on the right row
+        EditorWindow currentWindow = dataService.getCurrentWindow();
+        VirtualFile selectedFile = currentWindow != null ? currentWindow.getSelectedFile() : null;
+        int oldRow = rowIndex.activeRow();
+        int newRow = selectedFile != null ? rowIndex.rowOf(selectedFile, currentWindow) : -1;
+
+        if (selectedFile != null && newRow < 0) {
+            return false;
+        }
+
+        if (oldRow != newRow) {
+            setActive(oldRow, false);
+            setActive(newRow, true);
+        }
+
+        scrollToActive();
+
+        return true;
+    }
+
+    private void setActive(int row, boolean active) {
+        if (row < 0) {
+            return;
+        }
+
+        ListItem.FileEntry fe = (ListItem.FileEntry) listModel.getElementAt(row);
+        listModel.set(row, new ListItem.FileEntry(fe.file(), fe.pinned(), active, fe.window()));
+    }
+
+    private void updateModel(List<ListItem> items) {
+        ListModelDiff.apply(listModel, items);
+    }
+
+    private void relayoutAll() {
+        // Renderer settings such as the path line change row heights
+        // without touching the model
+        if (fileList.getUI() instanceof OpenEditorsListUI listUI) {
+            listUI.invalidateRowHeights();
+        }
+
+        fileList.repaint();
+    }
+
+    private void scrollToActive() {
+        int activeRow = rowIndex.activeRow();
+
+        if (activeRow >= 0) {
+            SwingUtilities.invokeLater(() -> fileList.ensureIndexIsVisible(activeRow));
+        }
     }
 }
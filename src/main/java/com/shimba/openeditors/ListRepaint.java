@@ -0,0 +1,54 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.vfs.VirtualFile;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Set;
+
+final class ListRepaint {
+
+    private ListRepaint() {
+    }
+
+    static void row(JList<?> list, int index) {
+        if (index < 0 || index >= list.getModel().getSize()) {
+            return;
+        }
+
+        Rectangle bounds = list.getCellBounds(index, index);
+
+        if (bounds != null) {
+            list.repaint(bounds);
+        }
+    }
+
+    // The line for a drop target is painted on the top edge of that row,
+    // or on the bottom edge of the last row when dropping past the end
+    static void dropLine(JList<?> list, int dropTarget) {
+        if (dropTarget < 0) {
+            return;
+        }
+
+        row(list, dropTarget - 1);
+        row(list, dropTarget);
+    }
+
+    // Rows scrolled out of view pick up the change on their next paint
+    static void visibleRowsOf(JList<? extends ListItem> list, Set<VirtualFile> files) {
+        int first = list.getFirstVisibleIndex();
+        int last = list.getLastVisibleIndex();
+
+        if (first < 0) {
+            return;
+        }
+
+        ListModel<? extends ListItem> model = list.getModel();
+
+        for (int i = first; i <= last && i < model.getSize(); i++) {
+            if (model.getElementAt(i) instanceof ListItem.FileEntry entry && files.contains(entry.file())) {
+                row(list, i);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.fileEditor.impl.EditorWindow;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.HashMap;
+import java.util.Map;
+
+final class ListRowIndex implements ListDataListener {
+
+    // Larger content changes are whole-model replacements, which are
+    // cheaper to reindex from scratch than to compare row by row
+    private static final int MAX_PATCHED_ROWS = 2;
+
+    private ListModel<ListItem> model;
+    private final Map<RowKey, Integer> rowByEntry = new HashMap<>();
+
+    private ListItem[] rows = new ListItem[0];
+    private int[] groupStart = new int[0];
+    private int[] groupEnd = new int[0];
+    private int[] pinnedEnd = new int[0];
+    private int activeRow = -1;
+    private boolean stale = true;
+
+    ListRowIndex(JList<ListItem> list) {
+        this.model = list.getModel();
+        model.addListDataListener(this);
+
+        list.addPropertyChangeListener("model", e -> {
+            model.removeListDataListener(this);
+            model = list.getModel();
+            model.addListDataListener(this);
+            stale = true;
+        });
+    }
+
+    int rowOf(VirtualFile file, EditorWindow window) {
+        if (model instanceof VirtualListModel virtualModel) {
+            return virtualModel.rowOf(file, window);
+        }
+
+        ensureBuilt();
+        Integer row = rowByEntry.get(new RowKey(file, window));
+
+        return row != null ? row : -1;
+    }
+
+    int activeRow() {
+        // The virtual model knows its active row without any items built
+        if (model instanceof VirtualListModel virtualModel) {
+            return virtualModel.activeRow();
+        }
+
+        ensureBuilt();
+        return activeRow;
+    }
+
+    GroupBounds groupBounds(int row) {
+        if (model instanceof VirtualListModel virtualModel) {
+            return virtualGroupBounds(virtualModel, row);
+        }
+
+        ensureBuilt();
+
+        if (row < 0 || row >= rows.length || !(rows[row] instanceof ListItem.FileEntry)) {
+            return null;
+        }
+
+        return new GroupBounds(groupStart[row], groupEnd[row], pinnedEnd[row]);
+    }
+
+    // Walks only the rows of the pressed group, never the whole model
+    private static GroupBounds virtualGroupBounds(VirtualListModel virtualModel, int row) {
+        int size = virtualModel.getSize();
+
+        if (row < 0 || row >= size || virtualModel.isHeader(row)) {
+            return null;
+        }
+
+        int start = row;
+
+        while (start > 0 && !virtualModel.isHeader(start - 1)) {
+            start--;
+        }
+
+        int end = row + 1;
+
+        while (end < size && !virtualModel.isHeader(end)) {
+            end++;
+        }
+
+        int pinnedEnd = start;
+
+        while (pinnedEnd < end && virtualModel.isPinned(pinnedEnd)) {
+            pinnedEnd++;
+        }
+
+        return new GroupBounds(start, end, pinnedEnd);
+    }
+
+    @Override
+    public void intervalAdded(ListDataEvent e) {
+        stale = true;
+    }
+
+    @Override
+    public void intervalRemoved(ListDataEvent e) {
+        stale = true;
+    }
+
+    @Override
+    public void contentsChanged(ListDataEvent e) {
+        if (stale) {
+            return;
+        }
+
+        if (e.getIndex1() - e.getIndex0() + 1 > MAX_PATCHED_ROWS) {
+            stale = true;
+
+            return;
+        }
+
+        // Selection patches replace single rows with a copy that only
+        // differs in the active flag; anything else needs a rebuild
+        for (int i = e.getIndex0(); i <= e.getIndex1(); i++) {
+            if (i < 0 || i >= rows.length
+                || !(rows[i] instanceof ListItem.FileEntry old && model.getElementAt(i) instanceof ListItem.FileEntry fe)
+                || !old.sameIdentity(fe) || old.pinned() != fe.pinned()) {
+                stale = true;
+
+                return;
+            }
+
+            rows[i] = fe;
+
+            if (fe.active()) {
+                activeRow = i;
+            } else if (activeRow == i) {
+                activeRow = -1;
+            }
+        }
+    }
+
+    private void ensureBuilt() {
+        if (!stale) {
+            return;
+        }
+
+        int size = model.getSize();
+        rows = new ListItem[size];
+        groupStart = new int[size];
+        groupEnd = new int[size];
+        pinnedEnd = new int[size];
+        rowByEntry.clear();
+        activeRow = -1;
+
+        int start = 0;
+
+        for (int i = 0; i <= size; i++) {
+            ListItem item = i < size ? model.getElementAt(i) : null;
+
+            if (item == null || item instanceof ListItem.GroupHeader) {
+                indexGroup(start, i);
+                start = i + 1;
+            }
+
+            if (item != null) {
+                rows[i] = item;
+            }
+        }
+
+        stale = false;
+    }
+
+    private void indexGroup(int start, int end) {
+        int pinned = end;
+
+        for (int i = start; i < end; i++) {
+            ListItem.FileEntry fe = (ListItem.FileEntry) rows[i];
+
+            if (!fe.pinned() && pinned == end) {
+                pinned = i;
+            }
+
+            if (fe.active()) {
+                activeRow = i;
+            }
+
+            rowByEntry.put(new RowKey(fe.file(), fe.window()), i);
+        }
+
+        for (int i = start; i < end; i++) {
+            groupStart[i] = start;
+            groupEnd[i] = end;
+            pinnedEnd[i] = pinned;
+        }
+    }
+
+    record GroupBounds(int start, int end, int pinnedEnd) {}
+
+    private record RowKey(VirtualFile file, EditorWindow window) {}
+}
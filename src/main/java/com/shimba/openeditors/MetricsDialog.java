@@ -0,0 +1,71 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+
+final class MetricsDialog extends DialogWrapper {
+
+    private static final int UPDATE_INTERVAL_MS = 1_000;
+
+    private final Project project;
+    private final OpenEditorsMetrics metrics;
+    private final JBTextArea text = new JBTextArea();
+    private final Timer updateTimer;
+
+    MetricsDialog(Project project) {
+        super(project, false);
+        this.project = project;
+        this.metrics = project.getService(OpenEditorsMetrics.class);
+
+        // Non-modal and live, so the figures can be watched while
+        // reproducing a slow refresh in the IDE behind the dialog
+        this.updateTimer = new Timer(UPDATE_INTERVAL_MS, e -> updateText());
+
+        setTitle("Open Editors Metrics");
+        setModal(false);
+        init();
+        updateText();
+        updateTimer.start();
+    }
+
+    @Override
+    protected JComponent createCenterPanel() {
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, text.getFont().getSize()));
+        text.setBorder(JBUI.Borders.empty(OpenEditorCellRenderer.BORDER_SIZE));
+
+        JBScrollPane scrollPane = new JBScrollPane(text);
+        scrollPane.setPreferredSize(JBUI.size(640, 320));
+
+        return scrollPane;
+    }
+
+    @Override
+    protected Action[] createLeftSideActions() {
+        return new Action[] {
+            new DialogWrapperAction("Dump to JSON") {
+                @Override
+                protected void doAction(ActionEvent e) {
+                    DumpMetricsAction.dump(project, metrics);
+                }
+            }
+        };
+    }
+
+    @Override
+    protected void dispose() {
+        updateTimer.stop();
+        super.dispose();
+    }
+
+    private void updateText() {
+        text.setText(metrics.formatSummary());
+    }
+}
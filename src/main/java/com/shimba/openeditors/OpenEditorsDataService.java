@@ -16,99 +16,139 @@ import java.util.List;
 @Service(Service.Level.PROJECT)
 public final class OpenEditorsDataService {
 
+    private static final long FINGERPRINT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
     private final Project project;
 
     public OpenEditorsDataService(Project project) {
         this.project = project;
     }
 
-    public List<EditorGroup> getEditorGroups() {
+    EditorSnapshot captureSnapshot() {
         FileEditorManagerEx manager = getManagerEx();
         EditorWindow[] allWindows = manager.getWindows();
 
         if (allWindows.length == 0) {
-            return List.of();
+            return new EditorSnapshot(List.of(), 0);
         }
 
         EditorWindow currentWindow = manager.getCurrentWindow();
         EditorsSplitters mainSplitters = findMainSplitters(manager);
-        ClassifiedWindows classified = classifyWindows(allWindows, mainSplitters);
-
-        List<EditorGroup> groups = new ArrayList<>();
-        int totalWindows = classified.main.size() + classified.floating.size();
-        boolean needsTitles = totalWindows > 1;
+        List<EditorSnapshot.WindowState> windows = new ArrayList<>(allWindows.length);
+        long fingerprint = allWindows.length;
 
-        buildMainFrameGroups(classified.main, currentWindow, needsTitles, groups);
-        buildFloatingGroups(classified.floating, currentWindow, needsTitles, groups);
+        for (EditorWindow window : allWindows) {
+            EditorSnapshot.WindowState state = captureWindow(window, mainSplitters, currentWindow);
+            windows.add(state);
+            fingerprint = fingerprintWindow(fingerprint, state);
+        }
 
-        return groups;
+        return new EditorSnapshot(List.copyOf(windows), fingerprint);
     }
 
-    public List<ListItem> buildListItems(List<EditorGroup> groups) {
-        if (groups.isEmpty()) {
-            return List.of();
+    // What fillRows would produce, without building anything: one header
+    // per window once there are several, and one row per tab
+    int countRows() {
+        EditorWindow[] windows = getManagerEx().getWindows();
+        int rows = windows.length > 1 ? windows.length : 0;
+
+        for (EditorWindow window : windows) {
+            rows += window.getFileList().size();
         }
 
-        boolean showHeaders = groups.size() > 1;
-        List<ListItem> items = new ArrayList<>();
+        return rows;
+    }
 
-        for (EditorGroup group : groups) {
-            if (showHeaders) {
-                items.add(new ListItem.GroupHeader(group.title(), group.window()));
-            }
+    EditorWindow getCurrentWindow() {
+        return getManagerEx().getCurrentWindow();
+    }
 
-            items.addAll(group.pinned());
-            items.addAll(group.unpinned());
+    void fillRows(EditorSnapshot snapshot, RowStore rows) {
+        rows.clear();
+        rows.setFingerprint(snapshot.fingerprint());
+
+        List<EditorSnapshot.WindowState> windows = snapshot.windows();
+        boolean showHeaders = windows.size() > 1;
+        int mainIndex = 0;
+        int floatingIndex = 0;
+
+        // Main-frame windows come first, then the floating ones; headers are
+        // only shown once there is more than one window
+        for (EditorSnapshot.WindowState window : windows) {
+            if (window.mainFrame()) {
+                addGroupRows(rows, showHeaders ? mainFrameTitle(mainIndex) : "", window, showHeaders);
+                mainIndex++;
+            }
         }
 
-        return items;
+        for (EditorSnapshot.WindowState window : windows) {
+            if (!window.mainFrame()) {
+                floatingIndex++;
+                addGroupRows(rows, showHeaders ? "Window " + floatingIndex : "", window, showHeaders);
+            }
+        }
     }
 
-    private void buildMainFrameGroups(
-        List<EditorWindow> mainWindows,
-        EditorWindow currentWindow,
-        boolean needsTitles,
-        List<EditorGroup> groups
+    private static EditorSnapshot.WindowState captureWindow(
+        EditorWindow window,
+        EditorsSplitters mainSplitters,
+        EditorWindow currentWindow
     ) {
-        for (int i = 0; i < mainWindows.size(); i++) {
-            EditorWindow window = mainWindows.get(i);
-            String title = needsTitles ? mainFrameTitle(i) : "";
-            groups.add(buildGroup(title, window, currentWindow));
+        List<VirtualFile> files = window.getFileList();
+        List<Boolean> pinned = new ArrayList<>(files.size());
+
+        for (VirtualFile file : files) {
+            pinned.add(safeIsFilePinned(window, file));
         }
+
+        boolean mainFrame = mainSplitters != null && window.getOwner() == mainSplitters;
+
+        return new EditorSnapshot.WindowState(
+            window, mainFrame, window == currentWindow, window.getSelectedFile(), List.copyOf(files), List.copyOf(pinned)
+        );
     }
 
-    private void buildFloatingGroups(
-        List<EditorWindow> floatingWindows,
-        EditorWindow currentWindow,
-        boolean needsTitles,
-        List<EditorGroup> groups
-    ) {
-        for (int i = 0; i < floatingWindows.size(); i++) {
-            EditorWindow window = floatingWindows.get(i);
-            String title = needsTitles ? "Window " + (i + 1) : "";
-            groups.add(buildGroup(title, window, currentWindow));
+    // Group titles follow from the window order and the main-frame flags,
+    // so hashing those covers the titles without building them
+    private static long fingerprintWindow(long hash, EditorSnapshot.WindowState state) {
+        VirtualFile selectedFile = state.current() ? state.selectedFile() : null;
+        List<VirtualFile> files = state.files();
+
+        hash = mix(hash, System.identityHashCode(state.window()));
+        hash = mix(hash, (state.mainFrame() ? 1 : 0) | files.size() << 1);
+
+        for (int i = 0; i < files.size(); i++) {
+            VirtualFile file = files.get(i);
+            long flags = (state.pinned().get(i) ? 1 : 0) | (file.equals(selectedFile) ? 2 : 0);
+            hash = mix(hash, (long) file.hashCode() << 2 | flags);
         }
+
+        return hash;
     }
 
-    private EditorGroup buildGroup(String title, EditorWindow window, EditorWindow currentWindow) {
-        boolean isFocusedWindow = window == currentWindow;
-        VirtualFile selectedFile = window.getSelectedFile();
-        List<ListItem.FileEntry> pinned = new ArrayList<>();
-        List<ListItem.FileEntry> unpinned = new ArrayList<>();
-
-        for (VirtualFile file : window.getFileList()) {
-            boolean isPinned = safeIsFilePinned(window, file);
-            boolean isActive = isFocusedWindow && file.equals(selectedFile);
-            ListItem.FileEntry entry = new ListItem.FileEntry(file, isPinned, isActive, window);
-
-            if (isPinned) {
-                pinned.add(entry);
-            } else {
-                unpinned.add(entry);
-            }
+    private static long mix(long hash, long value) {
+        return (Long.rotateLeft(hash, 23) ^ value) * FINGERPRINT_MULTIPLIER;
+    }
+
+    private static void addGroupRows(RowStore rows, String title, EditorSnapshot.WindowState state, boolean showHeader) {
+        if (showHeader) {
+            rows.addHeader(title, state.window());
         }
 
-        return new EditorGroup(title, window, pinned, unpinned);
+        addFileRows(rows, state, true);
+        addFileRows(rows, state, false);
+    }
+
+    private static void addFileRows(RowStore rows, EditorSnapshot.WindowState state, boolean pinnedPass) {
+        List<VirtualFile> files = state.files();
+
+        for (int i = 0; i < files.size(); i++) {
+            if (state.pinned().get(i) == pinnedPass) {
+                VirtualFile file = files.get(i);
+                boolean isActive = state.current() && file.equals(state.selectedFile());
+                rows.addFile(file, state.window(), pinnedPass, isActive);
+            }
+        }
     }
 
     private static String mainFrameTitle(int windowIndex) {
@@ -121,24 +161,6 @@ public final class OpenEditorsDataService {
         return "Split View " + windowIndex;
     }
 
-    private record ClassifiedWindows(List<EditorWindow> main, List<EditorWindow> floating) {
-    }
-
-    private static ClassifiedWindows classifyWindows(EditorWindow[] allWindows, EditorsSplitters mainSplitters) {
-        List<EditorWindow> main = new ArrayList<>();
-        List<EditorWindow> floating = new ArrayList<>();
-
-        for (EditorWindow window : allWindows) {
-            if (mainSplitters != null && window.getOwner() == mainSplitters) {
-                main.add(window);
-            } else {
-                floating.add(window);
-            }
-        }
-
-        return new ClassifiedWindows(main, floating);
-    }
-
     private EditorsSplitters findMainSplitters(FileEditorManagerEx manager) {
         JFrame mainFrame = WindowManager.getInstance().getFrame(project);
 
@@ -0,0 +1,146 @@
+package com.shimba.openeditors;
+
+import javax.swing.*;
+import javax.swing.event.MouseInputListener;
+import javax.swing.plaf.basic.BasicListUI;
+import java.awt.event.MouseEvent;
+
+final class OpenEditorsListUI extends BasicListUI {
+
+    // Reused across layout passes; super.updateLayoutState drops cellHeights
+    private int[] rowHeights = new int[0];
+
+    void invalidateRowHeights() {
+        updateLayoutStateNeeded |= modelChanged;
+        list.revalidate();
+        list.repaint();
+    }
+
+    @Override
+    protected MouseInputListener createMouseInputListener() {
+        return new DragAwareMouseListener(super.createMouseInputListener());
+    }
+
+    @Override
+    protected void updateLayoutState() {
+        Object cellRenderer = list.getCellRenderer();
+
+        if (!(cellRenderer instanceof OpenEditorCellRenderer renderer)) {
+            super.updateLayoutState();
+
+            return;
+        }
+
+        // With a fixed cell size on the list BasicListUI skips the per-cell
+        // measuring pass; the real heights come from the renderer prototypes
+        if (list.getFixedCellWidth() < 0 || list.getFixedCellHeight() < 0) {
+            list.setFixedCellWidth(0);
+            list.setFixedCellHeight(renderer.getFileRowHeight(list));
+        }
+
+        super.updateLayoutState();
+
+        cellWidth = list.getWidth();
+        applyRowHeights(renderer);
+    }
+
+    private void applyRowHeights(OpenEditorCellRenderer renderer) {
+        ListModel<Object> model = list.getModel();
+        int size = model.getSize();
+        int fileRowHeight = renderer.getFileRowHeight(list);
+        int headerRowHeight = renderer.getHeaderRowHeight(list);
+
+        // Headers only exist in multi-window mode and then always lead the list
+        boolean hasHeaders = size > 0 && isHeader(model, 0);
+
+        if (!hasHeaders || headerRowHeight == fileRowHeight) {
+            cellHeight = fileRowHeight;
+            cellHeights = null;
+
+            return;
+        }
+
+        if (rowHeights.length != size) {
+            rowHeights = new int[size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            rowHeights[i] = isHeader(model, i) ? headerRowHeight : fileRowHeight;
+        }
+
+        cellHeight = -1;
+        cellHeights = rowHeights;
+    }
+
+    // The virtual model is asked directly, so a layout pass does not create
+    // an item for every row just to learn its kind
+    private static boolean isHeader(ListModel<?> model, int row) {
+        if (model instanceof VirtualListModel virtualModel) {
+            return virtualModel.isHeader(row);
+        }
+
+        return model.getElementAt(row) instanceof ListItem.GroupHeader;
+    }
+
+    // Dragging rows reorders tabs, so the list's own drag-to-select is
+    // dropped, and a plain press on a multi-row selection keeps it intact
+    // for DragHandler to move as a whole
+    private final class DragAwareMouseListener implements MouseInputListener {
+
+        private final MouseInputListener delegate;
+
+        DragAwareMouseListener(MouseInputListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            if (pressesMultiRowSelection(e)) {
+                list.requestFocusInWindow();
+
+                return;
+            }
+
+            delegate.mousePressed(e);
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+        }
+
+        @Override
+        public void mouseClicked(MouseEvent e) {
+            delegate.mouseClicked(e);
+        }
+
+        @Override
+        public void mouseReleased(MouseEvent e) {
+            delegate.mouseReleased(e);
+        }
+
+        @Override
+        public void mouseEntered(MouseEvent e) {
+            delegate.mouseEntered(e);
+        }
+
+        @Override
+        public void mouseExited(MouseEvent e) {
+            delegate.mouseExited(e);
+        }
+
+        @Override
+        public void mouseMoved(MouseEvent e) {
+            delegate.mouseMoved(e);
+        }
+
+        private boolean pressesMultiRowSelection(MouseEvent e) {
+            if (!SwingUtilities.isLeftMouseButton(e) || ListHitTest.isSelectionGesture(e)) {
+                return false;
+            }
+
+            int row = locationToIndex(list, e.getPoint());
+
+            return row >= 0 && list.isSelectedIndex(row) && list.getMinSelectionIndex() != list.getMaxSelectionIndex();
+        }
+    }
+}
@@ -1,38 +1,49 @@
 package com.shimba.openeditors;
 
 import com.intellij.openapi.Disposable;
-import com.intellij.openapi.actionSystem.AnAction;
-import com.intellij.openapi.actionSystem.AnActionEvent;
-import com.intellij.openapi.actionSystem.ex.AnActionListener;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.fileEditor.FileEditorManagerEvent;
 import com.intellij.openapi.fileEditor.FileEditorManagerListener;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.Alarm;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.openapi.wm.ex.ToolWindowManagerListener;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Set;
+import java.util.List;
 
 final class OpenEditorsListener {
 
-    private static final int POLL_INTERVAL_MS = 2000;
-    private static final int DEBOUNCE_MS = 50;
-    private static final Set<String> PIN_ACTION_IDS = Set.of("PinActiveTab", "PinActiveTabToggle", "PinActiveEditorTab");
+    private static final Logger LOG = Logger.getInstance(OpenEditorsListener.class);
 
-    private final Alarm pollAlarm;
-    private final Alarm debounceAlarm;
-    private final Runnable onUpdate;
+    private final ToolWindow toolWindow;
+    private final RefreshScheduler scheduler;
+    private final ListModelUpdater updater;
+    private final EditorStructureWatcher structureWatcher;
+    private final OpenEditorsMetrics metrics;
 
-    OpenEditorsListener(Project project, Disposable parentDisposable, Runnable onUpdate) {
-        this.onUpdate = onUpdate;
-        this.pollAlarm = new Alarm(parentDisposable);
-        this.debounceAlarm = new Alarm(parentDisposable);
+    private boolean missedWhileHidden;
+
+    OpenEditorsListener(Project project, ToolWindow toolWindow, ListModelUpdater updater) {
+        Disposable parentDisposable = toolWindow.getDisposable();
+
+        this.toolWindow = toolWindow;
+        this.updater = updater;
+        this.metrics = project.getService(OpenEditorsMetrics.class);
+        this.scheduler = new RefreshScheduler(parentDisposable, this::refreshNow);
+        this.structureWatcher = new EditorStructureWatcher(project, parentDisposable, this::request);
 
         subscribeToEditorEvents(project, parentDisposable);
-        subscribeToActionEvents(parentDisposable);
-        schedulePoll();
+        subscribeToPinActions(project, parentDisposable);
+        subscribeToVisibility(project, parentDisposable);
+        structureWatcher.sync();
+
+        ApplicationManager.getApplication().getService(RefreshCoordinator.class).register(
+            project, toolWindow::isVisible, this::poll, parentDisposable
+        );
     }
 
     private void subscribeToEditorEvents(Project project, Disposable parentDisposable) {
@@ -40,54 +51,95 @@ final class OpenEditorsListener {
             FileEditorManagerListener.FILE_EDITOR_MANAGER, new FileEditorManagerListener() {
                 @Override
                 public void fileOpened(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
-                    scheduleRefresh();
+                    request(new EditorChangeEvent.FileOpened(file));
                 }
 
                 @Override
                 public void fileClosed(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
-                    scheduleRefresh();
+                    request(new EditorChangeEvent.FileClosed(file));
                 }
 
                 @Override
                 public void selectionChanged(
                     @NotNull FileEditorManagerEvent event
                 ) {
-                    scheduleRefresh();
+                    request(new EditorChangeEvent.SelectionChanged(event.getOldFile(), event.getNewFile()));
                 }
             }
         );
     }
 
-    private void subscribeToActionEvents(Disposable parentDisposable) {
-        ApplicationManager.getApplication().getMessageBus().connect(parentDisposable).subscribe(
-            AnActionListener.TOPIC, new AnActionListener() {
-                @Override
-                public void afterActionPerformed(
-                    @NotNull AnAction action,
-                    @NotNull AnActionEvent event,
-                    @NotNull com.intellij.openapi.actionSystem.AnActionResult result
-                ) {
-                    String id = event.getActionManager().getId(action);
+    private void subscribeToPinActions(Project project, Disposable parentDisposable) {
+        ApplicationManager.getApplication().getService(PinActionDispatcher.class).addListener(
+            project, () -> request(new EditorChangeEvent.PinChanged()), parentDisposable
+        );
+    }
 
-                    if (id != null && PIN_ACTION_IDS.contains(id)) {
-                        scheduleRefresh();
-                    }
+    private void subscribeToVisibility(Project project, Disposable parentDisposable) {
+        project.getMessageBus().connect(parentDisposable).subscribe(
+            ToolWindowManagerListener.TOPIC, new ToolWindowManagerListener() {
+                @Override
+                public void stateChanged(@NotNull ToolWindowManager toolWindowManager) {
+                    catchUpIfShown();
                 }
             }
         );
     }
 
-    private void scheduleRefresh() {
-        debounceAlarm.cancelAllRequests();
-        debounceAlarm.addRequest(() -> ApplicationManager.getApplication().invokeLater(onUpdate), DEBOUNCE_MS);
+    // While the panel is hidden, events are only noted. The first time it
+    // is shown again, one full refresh replaces everything that was missed
+    private void request(EditorChangeEvent event) {
+        metrics.increment(OpenEditorsMetrics.Counter.EDITOR_EVENTS);
+
+        if (!toolWindow.isVisible()) {
+            missedWhileHidden = true;
+
+            return;
+        }
+
+        scheduler.request(event);
     }
 
-    private void schedulePoll() {
-        pollAlarm.addRequest(
-            () -> {
-                onUpdate.run();
-                schedulePoll();
-            }, POLL_INTERVAL_MS
-        );
+    private void catchUpIfShown() {
+        if (!missedWhileHidden || !toolWindow.isVisible()) {
+            return;
+        }
+
+        missedWhileHidden = false;
+        structureWatcher.sync();
+        updater.refresh();
+    }
+
+    private void refreshNow(List<EditorChangeEvent> events) {
+        // Hidden between the request and the debounced refresh
+        if (!toolWindow.isVisible()) {
+            missedWhileHidden = true;
+
+            return;
+        }
+
+        metrics.increment(OpenEditorsMetrics.Counter.COALESCED_REFRESHES);
+        structureWatcher.sync();
+        updater.applyChanges(events);
+    }
+
+    private void poll() {
+        structureWatcher.sync();
+        updater.refresh(this::recordPollCycle, true);
+    }
+
+    private void recordPollCycle(boolean changed) {
+        metrics.increment(OpenEditorsMetrics.Counter.POLL_CYCLES);
+
+        if (changed) {
+            LOG.info("Safety poll picked up a change that no editor event reported");
+        } else {
+            metrics.increment(OpenEditorsMetrics.Counter.IDLE_POLL_CYCLES);
+        }
+
+        LOG.debug("Safety poll: " + metrics.get(OpenEditorsMetrics.Counter.IDLE_POLL_CYCLES) + " of "
+            + metrics.get(OpenEditorsMetrics.Counter.POLL_CYCLES) + " cycles found no change; "
+            + metrics.get(OpenEditorsMetrics.Counter.EDITOR_EVENTS) + " events coalesced into "
+            + metrics.get(OpenEditorsMetrics.Counter.COALESCED_REFRESHES) + " refreshes");
     }
 }
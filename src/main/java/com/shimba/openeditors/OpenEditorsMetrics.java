@@ -0,0 +1,163 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// What the panel costs while it runs, so that a reported freeze can be
+// matched against refresh, build and paint times of the same session
+@Service(Service.Level.PROJECT)
+public final class OpenEditorsMetrics {
+
+    enum Timing {
+        REFRESH("refresh"),
+        FORCE_REFRESH("forceRefresh"),
+        ROW_BUILD("rowBuild"),
+        CELL_RENDER("cellRender");
+
+        private final String key;
+
+        Timing(String key) {
+            this.key = key;
+        }
+    }
+
+    enum Counter {
+        EDITOR_EVENTS("editorEvents"),
+        COALESCED_REFRESHES("coalescedRefreshes"),
+        FINGERPRINT_HITS("fingerprintHits"),
+        MODEL_PATCHES("modelPatches"),
+        POLL_CYCLES("pollCycles"),
+        IDLE_POLL_CYCLES("idlePollCycles");
+
+        private final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+    }
+
+    private final Map<Timing, LatencyHistogram> timings = new EnumMap<>(Timing.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    private final Instant startedAt = Instant.now();
+
+    public OpenEditorsMetrics() {
+        // Filled once up front; afterwards the maps are only read
+        for (Timing timing : Timing.values()) {
+            timings.put(timing, new LatencyHistogram());
+        }
+
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    void record(Timing timing, long startNanos) {
+        timings.get(timing).record(System.nanoTime() - startNanos);
+    }
+
+    void increment(Counter counter) {
+        counters.get(counter).increment();
+    }
+
+    long get(Counter counter) {
+        return counters.get(counter).sum();
+    }
+
+    double pollNoOpRatio() {
+        long cycles = get(Counter.POLL_CYCLES);
+
+        return cycles > 0 ? (double) get(Counter.IDLE_POLL_CYCLES) / cycles : 0;
+    }
+
+    String formatSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-14s %9s %10s %9s %9s %9s %9s%n",
+            "Timing (us)", "count", "mean", "p50", "p95", "p99", "max"));
+
+        for (Timing timing : Timing.values()) {
+            LatencyHistogram.Summary s = timings.get(timing).summarize();
+            sb.append(String.format(Locale.ROOT, "%-14s %9d %10.1f %9d %9d %9d %9d%n",
+                timing.key, s.count(), s.meanMicros(), s.p50Micros(), s.p95Micros(), s.p99Micros(), s.maxMicros()));
+        }
+
+        sb.append(System.lineSeparator());
+
+        for (Counter counter : Counter.values()) {
+            sb.append(String.format(Locale.ROOT, "%-20s %12d%n", counter.key, get(counter)));
+        }
+
+        sb.append(String.format(Locale.ROOT, "%-20s %12.3f%n", "pollNoOpRatio", pollNoOpRatio()));
+
+        return sb.toString();
+    }
+
+    String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"startedAt\": \"").append(startedAt).append("\",\n");
+        sb.append("  \"capturedAt\": \"").append(Instant.now()).append("\",\n");
+        sb.append("  \"timings\": {\n");
+
+        Timing[] allTimings = Timing.values();
+
+        for (int t = 0; t < allTimings.length; t++) {
+            LatencyHistogram.Summary s = timings.get(allTimings[t]).summarize();
+            sb.append("    \"").append(allTimings[t].key).append("\": {");
+            sb.append("\"count\": ").append(s.count());
+            sb.append(String.format(Locale.ROOT, ", \"meanMicros\": %.1f", s.meanMicros()));
+            sb.append(", \"p50Micros\": ").append(s.p50Micros());
+            sb.append(", \"p95Micros\": ").append(s.p95Micros());
+            sb.append(", \"p99Micros\": ").append(s.p99Micros());
+            sb.append(", \"maxMicros\": ").append(s.maxMicros());
+            sb.append(", \"bucketsBelowMicros\": {");
+            appendBuckets(sb, s.buckets());
+            sb.append("}}").append(t < allTimings.length - 1 ? ",\n" : "\n");
+        }
+
+        sb.append("  },\n");
+        sb.append("  \"counters\": {\n");
+
+        for (Counter counter : Counter.values()) {
+            sb.append("    \"").append(counter.key).append("\": ").append(get(counter)).append(",\n");
+        }
+
+        sb.append(String.format(Locale.ROOT, "    \"pollNoOpRatio\": %.3f\n", pollNoOpRatio()));
+        sb.append("  }\n");
+        sb.append("}\n");
+
+        return sb.toString();
+    }
+
+    Path dumpToLogDirectory() throws IOException {
+        Path target = Path.of(PathManager.getLogPath(), "open-editors-metrics-" + System.currentTimeMillis() + ".json");
+        Files.writeString(target, toJson(), StandardCharsets.UTF_8);
+
+        return target;
+    }
+
+    // Empty buckets are left out to keep the dump readable; the last one
+    // has no upper edge and is keyed as such
+    private static void appendBuckets(StringBuilder sb, long[] buckets) {
+        boolean first = true;
+
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] == 0) {
+                continue;
+            }
+
+            String key = i == buckets.length - 1 ? "inf" : Long.toString(LatencyHistogram.bucketUpperMicros(i));
+            sb.append(first ? "" : ", ").append('"').append(key).append("\": ").append(buckets[i]);
+            first = false;
+        }
+    }
+}
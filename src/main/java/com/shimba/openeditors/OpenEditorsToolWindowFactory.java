@@ -6,6 +6,8 @@ import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.SearchTextField;
 import com.intellij.ui.components.JBList;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.content.Content;
@@ -13,8 +15,9 @@ import com.intellij.ui.content.ContentFactory;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
-import java.awt.event.ComponentAdapter;
-import java.awt.event.ComponentEvent;
+import javax.swing.event.DocumentEvent;
+import java.awt.*;
+import java.awt.event.MouseEvent;
 
 public class OpenEditorsToolWindowFactory implements ToolWindowFactory, DumbAware {
 
@@ -27,46 +30,80 @@ public class OpenEditorsToolWindowFactory implements ToolWindowFactory, DumbAwar
         boolean showFilePath = PropertiesComponent.getInstance(project).getBoolean(ToggleFilePathAction.PROP_KEY, true);
         state.setShowFilePath(showFilePath);
 
+        FilePathResolver pathResolver = project.getService(FilePathResolver.class);
         DefaultListModel<ListItem> listModel = new DefaultListModel<>();
         JBList<ListItem> fileList = new JBList<>(listModel) {
             @Override
             public boolean getScrollableTracksViewportWidth() {
                 return true;
             }
+
+            // Answered here rather than set on the cell during every paint,
+            // which would register the renderer with ToolTipManager each time
+            @Override
+            public String getToolTipText(MouseEvent event) {
+                ListHitTest.HitResult hit = ListHitTest.hitTest(this, event);
+
+                if (hit != null && getModel().getElementAt(hit.index()) instanceof ListItem.FileEntry entry) {
+                    return pathResolver.getPathText(entry.file());
+                }
+
+                return null;
+            }
+
+            @Override
+            public void updateUI() {
+                super.updateUI();
+                setUI(new OpenEditorsListUI());
+
+                if (getCellRenderer() instanceof OpenEditorCellRenderer renderer) {
+                    renderer.updateUI();
+                }
+            }
         };
         fileList.setCellRenderer(new OpenEditorCellRenderer(project, state));
-        fileList.setFixedCellHeight(-1);
+        FileRenderCache renderCache = project.getService(FileRenderCache.class);
+        renderCache.addInvalidationListener(fileList::repaint, toolWindow.getDisposable());
+        renderCache.trackVisibility(toolWindow);
+        pathResolver.addInvalidationListener(fileList::repaint, toolWindow.getDisposable());
+        project.getService(FileIconResolver.class).addResolvedListener(
+            files -> ListRepaint.visibleRowsOf(fileList, files), toolWindow.getDisposable()
+        );
 
-        ListModelUpdater updater = new ListModelUpdater(fileList, listModel, dataService);
+        ListRowIndex rowIndex = new ListRowIndex(fileList);
+        ListModelUpdater updater = new ListModelUpdater(project, fileList, listModel, rowIndex, dataService);
 
         DefaultActionGroup gearGroup = new DefaultActionGroup();
         gearGroup.add(new ToggleFilePathAction(project, state, updater::forceRefresh));
+        gearGroup.addSeparator();
+        gearGroup.add(new ShowMetricsAction(project));
+        gearGroup.add(new DumpMetricsAction(project));
         toolWindow.setAdditionalGearActions(gearGroup);
 
         Runnable refresh = updater::refresh;
 
-        new ClickHandler(fileList, listModel, actionService, state, refresh).install();
-        new HoverHandler(fileList, listModel, state).install();
-        new DragHandler(fileList, listModel, actionService, state, refresh).install();
-        new ContextMenuHandler(fileList, listModel, project).install();
+        new ClickHandler(fileList, actionService, state, refresh).install();
+        new HoverHandler(fileList, state).install();
+        new DragHandler(fileList, rowIndex, actionService, state, updater).install();
+        new ContextMenuHandler(fileList, project).install();
 
-        fileList.addComponentListener(new ComponentAdapter() {
+        SearchTextField filterField = new SearchTextField(false);
+        filterField.addDocumentListener(new DocumentAdapter() {
             @Override
-            public void componentResized(ComponentEvent e) {
-                // BasicListUI caches cell heights and only re-measures on
-                // model change events — a single set triggers full re-layout
-                if (listModel.getSize() > 0) {
-                    listModel.set(0, listModel.get(0));
-                }
+            protected void textChanged(@NotNull DocumentEvent e) {
+                updater.setFilter(filterField.getText());
             }
         });
 
-        JBScrollPane scrollPane = new JBScrollPane(fileList);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(filterField, BorderLayout.NORTH);
+        panel.add(new JBScrollPane(fileList), BorderLayout.CENTER);
+
         ContentFactory contentFactory = ContentFactory.getInstance();
-        Content content = contentFactory.createContent(scrollPane, "", false);
+        Content content = contentFactory.createContent(panel, "", false);
         toolWindow.getContentManager().addContent(content);
 
-        new OpenEditorsListener(project, toolWindow.getDisposable(), refresh);
+        new OpenEditorsListener(project, toolWindow, updater);
 
         updater.refresh();
     }
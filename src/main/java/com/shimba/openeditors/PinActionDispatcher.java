@@ -0,0 +1,75 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.AnActionResult;
+import com.intellij.openapi.actionSystem.ex.AnActionListener;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// One subscription to the IDE-wide action stream for every open project.
+// Pin actions are matched by id, since a plugin reload replaces instances
+@Service(Service.Level.APP)
+public final class PinActionDispatcher implements Disposable {
+
+    private static final Set<String> PIN_ACTION_IDS = Set.of("PinActiveTab", "PinActiveTabToggle", "PinActiveEditorTab");
+
+    private final Map<Project, List<Runnable>> listeners = new ConcurrentHashMap<>();
+
+    public PinActionDispatcher() {
+        ApplicationManager.getApplication().getMessageBus().connect(this).subscribe(
+            AnActionListener.TOPIC, new AnActionListener() {
+                @Override
+                public void afterActionPerformed(@NotNull AnAction action, @NotNull AnActionEvent event, @NotNull AnActionResult result) {
+                    dispatch(action, event);
+                }
+            }
+        );
+    }
+
+    void addListener(Project project, Runnable listener, Disposable parentDisposable) {
+        listeners.computeIfAbsent(project, p -> new CopyOnWriteArrayList<>()).add(listener);
+        Disposer.register(parentDisposable, () -> listeners.computeIfPresent(project, (p, projectListeners) -> {
+            projectListeners.remove(listener);
+
+            return projectListeners.isEmpty() ? null : projectListeners;
+        }));
+    }
+
+    @Override
+    public void dispose() {
+        listeners.clear();
+    }
+
+    private void dispatch(AnAction action, AnActionEvent event) {
+        if (listeners.isEmpty() || !isPinAction(action)) {
+            return;
+        }
+
+        Project project = event.getProject();
+        List<Runnable> projectListeners = project != null ? listeners.get(project) : null;
+
+        if (projectListeners != null) {
+            projectListeners.forEach(Runnable::run);
+        }
+    }
+
+    // The action manager keeps ids in a map by instance, so this stays a
+    // lookup rather than a scan
+    private static boolean isPinAction(AnAction action) {
+        String id = ActionManager.getInstance().getId(action);
+
+        return id != null && PIN_ACTION_IDS.contains(id);
+    }
+}
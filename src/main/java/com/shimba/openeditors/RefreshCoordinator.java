@@ -0,0 +1,103 @@
+package com.shimba.openeditors;
+
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.wm.WindowManager;
+import com.intellij.util.Alarm;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+// Runs the safety poll of every open project from a single timer. Only
+// projects with a shown panel in the active frame are polled, one per
+// wakeup, so their polls never land in the same tick
+@Service(Service.Level.APP)
+public final class RefreshCoordinator implements Disposable {
+
+    // Editor, tab bar and splitter events drive refreshes; the poll only
+    // guards against a missed event source and, by skipping the fingerprint
+    // shortcut, against a fingerprint collision. Set to 0 to switch it off
+    static final String SAFETY_POLL_INTERVAL_KEY = "openEditors.safetyPollIntervalMs";
+    private static final int DEFAULT_SAFETY_POLL_INTERVAL_MS = 30_000;
+    private static final int MIN_STAGGER_MS = 1_000;
+
+    private final Alarm alarm = new Alarm(this);
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    private int nextRegistration;
+
+    void register(Project project, BooleanSupplier panelShown, Runnable poll, Disposable parentDisposable) {
+        Registration registration = new Registration(project, panelShown, poll);
+        registrations.add(registration);
+        Disposer.register(parentDisposable, () -> registrations.remove(registration));
+
+        int interval = getSafetyPollInterval();
+
+        if (interval > 0 && alarm.isEmpty()) {
+            alarm.addRequest(this::pollNext, interval);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        registrations.clear();
+    }
+
+    private void pollNext() {
+        int count = registrations.size();
+        int interval = getSafetyPollInterval();
+
+        // Switched off while running; the next registration starts it again
+        if (count == 0 || interval <= 0) {
+            return;
+        }
+
+        int eligible = 0;
+        Registration polled = null;
+
+        // Round-robin from where the last wakeup stopped, so every eligible
+        // project still gets one poll per interval
+        for (int i = 0; i < count; i++) {
+            int index = (nextRegistration + i) % count;
+            Registration registration = registrations.get(index);
+
+            if (isEligible(registration)) {
+                eligible++;
+
+                if (polled == null) {
+                    polled = registration;
+                    nextRegistration = index + 1;
+                }
+            }
+        }
+
+        if (polled != null) {
+            polled.poll().run();
+        }
+
+        int delay = Math.max(MIN_STAGGER_MS, interval / Math.max(1, eligible));
+        alarm.addRequest(this::pollNext, delay);
+    }
+
+    private static int getSafetyPollInterval() {
+        return PropertiesComponent.getInstance().getInt(SAFETY_POLL_INTERVAL_KEY, DEFAULT_SAFETY_POLL_INTERVAL_MS);
+    }
+
+    private static boolean isEligible(Registration registration) {
+        if (registration.project().isDisposed() || !registration.panelShown().getAsBoolean()) {
+            return false;
+        }
+
+        JFrame frame = WindowManager.getInstance().getFrame(registration.project());
+
+        return frame != null && frame.isActive();
+    }
+
+    private record Registration(Project project, BooleanSupplier panelShown, Runnable poll) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.util.Alarm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+final class RefreshScheduler {
+
+    private static final long MIN_DEBOUNCE_MS = 16;
+    private static final long MAX_DEBOUNCE_MS = 100;
+    private static final long MAX_LATENCY_MS = 150;
+
+    // Weight of the newest gap in the running average of event spacing
+    private static final double GAP_SMOOTHING = 0.3;
+
+    private final Alarm alarm;
+    private final Consumer<List<EditorChangeEvent>> refresh;
+
+    private List<EditorChangeEvent> pending = new ArrayList<>();
+    private long firstPendingNanos = -1;
+    private long lastEventNanos = -1;
+    private double averageGapMs;
+
+    RefreshScheduler(Disposable parentDisposable, Consumer<List<EditorChangeEvent>> refresh) {
+        this.alarm = new Alarm(parentDisposable);
+        this.refresh = refresh;
+    }
+
+    synchronized void request(EditorChangeEvent event) {
+        pending.add(event);
+
+        long now = System.nanoTime();
+        trackEventRate(now);
+
+        if (firstPendingNanos < 0) {
+            firstPendingNanos = now;
+        }
+
+        // Isolated events refresh almost immediately; bursts stretch the
+        // window to coalesce more, but never past the latency bound
+        long debounceMs = Math.max(MIN_DEBOUNCE_MS, Math.min(MAX_DEBOUNCE_MS, Math.round(averageGapMs * 2)));
+        long sinceFirstMs = TimeUnit.NANOSECONDS.toMillis(now - firstPendingNanos);
+        long delayMs = Math.max(0, Math.min(debounceMs, MAX_LATENCY_MS - sinceFirstMs));
+
+        alarm.cancelAllRequests();
+        alarm.addRequest(this::fire, delayMs);
+    }
+
+    private void trackEventRate(long now) {
+        if (lastEventNanos >= 0) {
+            double gapMs = TimeUnit.NANOSECONDS.toMillis(now - lastEventNanos);
+
+            // A long pause ends the burst; the next event starts from scratch
+            if (gapMs > MAX_DEBOUNCE_MS) {
+                averageGapMs = 0;
+            } else {
+                averageGapMs += (gapMs - averageGapMs) * GAP_SMOOTHING;
+            }
+        }
+
+        lastEventNanos = now;
+    }
+
+    private void fire() {
+        List<EditorChangeEvent> batch;
+
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+            firstPendingNanos = -1;
+        }
+
+        refresh.accept(batch);
+    }
+}
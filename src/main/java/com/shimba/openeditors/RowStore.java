@@ -0,0 +1,249 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.fileEditor.impl.EditorWindow;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+// Rows as parallel arrays that are cleared and refilled on every build,
+// so a refresh only allocates once the tab count outgrows the capacity
+final class RowStore {
+
+    private static final int HEADER = 1;
+    private static final int PINNED = 1 << 1;
+    private static final int ACTIVE = 1 << 2;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private VirtualFile[] files = new VirtualFile[INITIAL_CAPACITY];
+    private EditorWindow[] windows = new EditorWindow[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private int[] flags = new int[INITIAL_CAPACITY];
+    private int size;
+    private int activeRow = -1;
+    private long fingerprint;
+    private String filter;
+
+    void clear() {
+        // Drop the references so closed files and windows can be collected
+        Arrays.fill(files, 0, size, null);
+        Arrays.fill(windows, 0, size, null);
+        Arrays.fill(titles, 0, size, null);
+        size = 0;
+        activeRow = -1;
+    }
+
+    void addHeader(String title, EditorWindow window) {
+        int row = nextRow();
+        titles[row] = title;
+        windows[row] = window;
+        flags[row] = HEADER;
+    }
+
+    void addFile(VirtualFile file, EditorWindow window, boolean pinned, boolean active) {
+        int row = nextRow();
+        files[row] = file;
+        windows[row] = window;
+        flags[row] = (pinned ? PINNED : 0) | (active ? ACTIVE : 0);
+
+        if (active) {
+            activeRow = row;
+        }
+    }
+
+    long getFingerprint() {
+        return fingerprint;
+    }
+
+    void setFingerprint(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    String getFilter() {
+        return filter;
+    }
+
+    void setFilter(String filter) {
+        this.filter = filter;
+    }
+
+    // Drops the file rows that fail the test, along with the header of
+    // every group left without files, compacting the arrays in place
+    void retainFiles(Predicate<VirtualFile> keep) {
+        int kept = 0;
+        int pendingHeader = -1;
+        int keptActive = -1;
+
+        for (int row = 0; row < size; row++) {
+            if (isHeader(row)) {
+                pendingHeader = row;
+                continue;
+            }
+
+            if (!keep.test(files[row])) {
+                continue;
+            }
+
+            if (pendingHeader >= 0) {
+                moveRow(pendingHeader, kept++);
+                pendingHeader = -1;
+            }
+
+            if (row == activeRow) {
+                keptActive = kept;
+            }
+
+            moveRow(row, kept++);
+        }
+
+        Arrays.fill(files, kept, size, null);
+        Arrays.fill(windows, kept, size, null);
+        Arrays.fill(titles, kept, size, null);
+        size = kept;
+        activeRow = keptActive;
+    }
+
+    int size() {
+        return size;
+    }
+
+    VirtualFile getFile(int row) {
+        return files[row];
+    }
+
+    boolean isHeader(int row) {
+        return (flags[row] & HEADER) != 0;
+    }
+
+    boolean isPinned(int row) {
+        return (flags[row] & PINNED) != 0;
+    }
+
+    int activeRow() {
+        return activeRow;
+    }
+
+    int rowOf(VirtualFile file, EditorWindow window) {
+        for (int i = 0; i < size; i++) {
+            if (windows[i] == window && !isHeader(i) && files[i].equals(file)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    ListItem toItem(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException(row);
+        }
+
+        if (isHeader(row)) {
+            return new ListItem.GroupHeader(titles[row], windows[row]);
+        }
+
+        return new ListItem.FileEntry(files[row], (flags[row] & PINNED) != 0, (flags[row] & ACTIVE) != 0, windows[row]);
+    }
+
+    List<ListItem> toItems() {
+        List<ListItem> items = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            items.add(toItem(i));
+        }
+
+        return items;
+    }
+
+    boolean contentEquals(RowStore other) {
+        if (size != other.size) {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (!rowEquals(i, other, i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Compares against shown items without creating any for the rows
+    boolean contentEquals(ListModel<ListItem> model) {
+        if (size != model.getSize()) {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (!rowEquals(i, model.getElementAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Rows both stores start with, and of the rest those both end with;
+    // only what lies between differs
+    int commonPrefix(RowStore other) {
+        int common = Math.min(size, other.size);
+        int prefix = 0;
+
+        while (prefix < common && rowEquals(prefix, other, prefix)) {
+            prefix++;
+        }
+
+        return prefix;
+    }
+
+    int commonSuffix(RowStore other, int prefix) {
+        int common = Math.min(size, other.size) - prefix;
+        int suffix = 0;
+
+        while (suffix < common && rowEquals(size - 1 - suffix, other, other.size - 1 - suffix)) {
+            suffix++;
+        }
+
+        return suffix;
+    }
+
+    private boolean rowEquals(int row, ListItem item) {
+        if (item instanceof ListItem.GroupHeader header) {
+            return isHeader(row) && windows[row] == header.window() && titles[row].equals(header.title());
+        }
+
+        return item instanceof ListItem.FileEntry fe && flags[row] == ((fe.pinned() ? PINNED : 0) | (fe.active() ? ACTIVE : 0))
+            && windows[row] == fe.window() && files[row].equals(fe.file());
+    }
+
+    private boolean rowEquals(int row, RowStore other, int otherRow) {
+        if (flags[row] != other.flags[otherRow] || windows[row] != other.windows[otherRow]) {
+            return false;
+        }
+
+        return isHeader(row) ? titles[row].equals(other.titles[otherRow]) : files[row].equals(other.files[otherRow]);
+    }
+
+    private void moveRow(int from, int to) {
+        files[to] = files[from];
+        windows[to] = windows[from];
+        titles[to] = titles[from];
+        flags[to] = flags[from];
+    }
+
+    private int nextRow() {
+        if (size == flags.length) {
+            int capacity = size * 2;
+            files = Arrays.copyOf(files, capacity);
+            windows = Arrays.copyOf(windows, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+
+        return size++;
+    }
+}
@@ -0,0 +1,27 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+final class ShowMetricsAction extends DumbAwareAction {
+
+    private final Project project;
+
+    ShowMetricsAction(@NotNull Project project) {
+        super("Show Performance Metrics");
+        this.project = project;
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.EDT;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        new MetricsDialog(project).show();
+    }
+}
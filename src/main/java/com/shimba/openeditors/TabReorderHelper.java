@@ -1,11 +1,13 @@
 package com.shimba.openeditors;
 
-import com.intellij.openapi.fileEditor.impl.EditorTabbedContainer;
 import com.intellij.openapi.fileEditor.impl.EditorWindow;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ui.tabs.TabInfo;
+import com.intellij.ui.tabs.impl.JBEditorTabs;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,22 +17,69 @@ final class TabReorderHelper {
     }
 
     static void reorderTabs(EditorWindow window, List<VirtualFile> desiredOrder) {
-        EditorTabbedContainer tabbedPane = window.getTabbedPane();
+        JBEditorTabs editorTabs = window.getTabbedPane().editorTabs;
+        List<TabInfo> current = editorTabs.getTabs();
+        List<TabInfo> target = targetOrder(current, desiredOrder);
 
-        Map<VirtualFile, Integer> orderMap = new HashMap<>();
+        // Every sortTabs call re-lays out the whole tab bar, so a drop that
+        // leaves the order as it is must not reach it at all
+        if (target == null) {
+            return;
+        }
+
+        // The tab bar has no single-tab move, so the whole target order is
+        // applied by one full sort rather than by moving only changed tabs
+        Map<TabInfo, Integer> positions = new IdentityHashMap<>(target.size() * 2);
+
+        for (int i = 0; i < target.size(); i++) {
+            positions.put(target.get(i), i);
+        }
+
+        editorTabs.sortTabs((tab1, tab2) -> Integer.compare(positions.get(tab1), positions.get(tab2)));
+    }
+
+    // Tabs missing from the desired order keep their slots; the listed ones
+    // fill the remaining slots in the desired order. Returns null when that
+    // is already the current order
+    static List<TabInfo> targetOrder(List<TabInfo> current, List<VirtualFile> desiredOrder) {
+        Map<VirtualFile, Integer> desiredIndex = new HashMap<>(desiredOrder.size() * 2);
 
         for (int i = 0; i < desiredOrder.size(); i++) {
-            orderMap.put(desiredOrder.get(i), i);
+            desiredIndex.put(desiredOrder.get(i), i);
+        }
+
+        TabInfo[] listed = new TabInfo[desiredOrder.size()];
+        boolean[] listedSlot = new boolean[current.size()];
+
+        for (int i = 0; i < current.size(); i++) {
+            Integer index = desiredIndex.get(extractFile(current.get(i)));
+
+            if (index != null && listed[index] == null) {
+                listed[index] = current.get(i);
+                listedSlot[i] = true;
+            }
         }
 
-        tabbedPane.editorTabs.sortTabs((tab1, tab2) -> {
-            VirtualFile f1 = extractFile(tab1);
-            VirtualFile f2 = extractFile(tab2);
-            int p1 = orderMap.getOrDefault(f1, Integer.MAX_VALUE);
-            int p2 = orderMap.getOrDefault(f2, Integer.MAX_VALUE);
+        List<TabInfo> target = new ArrayList<>(current.size());
+        boolean moved = false;
+        int nextListed = 0;
+
+        for (int i = 0; i < current.size(); i++) {
+            TabInfo tab = current.get(i);
+
+            if (listedSlot[i]) {
+                while (listed[nextListed] == null) {
+                    nextListed++;
+                }
+
+                tab = listed[nextListed++];
+            }
+
+            moved |= tab != current.get(i);
+            target.add(tab);
+        }
 
-            return Integer.compare(p1, p2);
-        });
+        return moved ? target : null;
     }
 
     private static VirtualFile extractFile(TabInfo tab) {
@@ -0,0 +1,107 @@
+package com.shimba.openeditors;
+
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+
+final class TextTruncator {
+
+    private static final String ELLIPSIS = "\u2026";
+    private static final int MAX_CACHED_ENTRIES = 4096;
+
+    private final Map<String, Truncation> fromEndCache = new HashMap<>();
+    private final Map<String, Truncation> fromStartCache = new HashMap<>();
+    private int cachedListWidth = -1;
+
+    void resetIfListWidthChanged(int listWidth) {
+        if (listWidth != cachedListWidth) {
+            fromEndCache.clear();
+            fromStartCache.clear();
+            cachedListWidth = listWidth;
+        }
+    }
+
+    String truncateFromEnd(String text, FontMetrics fm, int maxWidth) {
+        return cached(fromEndCache, text, fm, maxWidth, false);
+    }
+
+    String truncateFromStart(String text, FontMetrics fm, int maxWidth) {
+        return cached(fromStartCache, text, fm, maxWidth, true);
+    }
+
+    private static String cached(Map<String, Truncation> cache, String text, FontMetrics fm, int maxWidth, boolean fromStart) {
+        Truncation hit = cache.get(text);
+
+        if (hit != null && hit.font.equals(fm.getFont()) && hit.maxWidth == maxWidth) {
+            return hit.result;
+        }
+
+        String result = fromStart ? cutStart(text, fm, maxWidth) : cutEnd(text, fm, maxWidth);
+
+        if (cache.size() >= MAX_CACHED_ENTRIES) {
+            cache.clear();
+        }
+
+        cache.put(text, new Truncation(fm.getFont(), maxWidth, result));
+
+        return result;
+    }
+
+    // Binary search for the longest prefix that still fits next to the ellipsis
+    private static String cutEnd(String text, FontMetrics fm, int maxWidth) {
+        if (fm.stringWidth(text) <= maxWidth) {
+            return text;
+        }
+
+        char[] chars = text.toCharArray();
+        int budget = maxWidth - fm.stringWidth(ELLIPSIS);
+        int lo = 0;
+        int hi = chars.length - 1;
+
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+
+            if (fm.charsWidth(chars, 0, mid) <= budget) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        if (lo > 0 && Character.isHighSurrogate(chars[lo - 1])) {
+            lo--;
+        }
+
+        return lo == 0 ? ELLIPSIS : text.substring(0, lo) + ELLIPSIS;
+    }
+
+    // Binary search for the longest suffix that still fits next to the ellipsis
+    private static String cutStart(String text, FontMetrics fm, int maxWidth) {
+        if (fm.stringWidth(text) <= maxWidth) {
+            return text;
+        }
+
+        char[] chars = text.toCharArray();
+        int budget = maxWidth - fm.stringWidth(ELLIPSIS);
+        int lo = 1;
+        int hi = chars.length;
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (fm.charsWidth(chars, mid, chars.length - mid) <= budget) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+
+        if (lo < chars.length && Character.isLowSurrogate(chars[lo])) {
+            lo++;
+        }
+
+        return lo >= chars.length ? ELLIPSIS : ELLIPSIS + text.substring(lo);
+    }
+
+    private record Truncation(Font font, int maxWidth, String result) {}
+}
@@ -0,0 +1,66 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.fileEditor.impl.EditorWindow;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import javax.swing.*;
+
+// Serves rows straight out of a RowStore: nothing is flattened into a
+// per-row list, and a ListItem is only created once a cell asks for it
+@SuppressWarnings("serial")
+final class VirtualListModel extends AbstractListModel<ListItem> {
+
+    private RowStore rows = new RowStore();
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public ListItem getElementAt(int index) {
+        return rows.toItem(index);
+    }
+
+    // Row kinds and the active row are answered from the store itself, so
+    // layout and scrolling never create items for rows that are not painted
+    boolean isHeader(int index) {
+        return rows.isHeader(index);
+    }
+
+    boolean isPinned(int index) {
+        return rows.isPinned(index);
+    }
+
+    int activeRow() {
+        return rows.activeRow();
+    }
+
+    int rowOf(VirtualFile file, EditorWindow window) {
+        return rows.rowOf(file, window);
+    }
+
+    void setRows(RowStore newRows) {
+        RowStore oldRows = rows;
+        int prefix = newRows.commonPrefix(oldRows);
+        int suffix = newRows.commonSuffix(oldRows, prefix);
+
+        // Only the rows between the shared head and tail are reported; a
+        // moved selection is then a change of two rows, not of all of them
+        int oldChanged = oldRows.size() - prefix - suffix;
+        int newChanged = newRows.size() - prefix - suffix;
+        int replaced = Math.min(oldChanged, newChanged);
+
+        rows = newRows;
+
+        if (oldChanged > newChanged) {
+            fireIntervalRemoved(this, prefix + newChanged, prefix + oldChanged - 1);
+        } else if (newChanged > oldChanged) {
+            fireIntervalAdded(this, prefix + oldChanged, prefix + newChanged - 1);
+        }
+
+        if (replaced > 0) {
+            fireContentsChanged(this, prefix, prefix + replaced - 1);
+        }
+    }
+}
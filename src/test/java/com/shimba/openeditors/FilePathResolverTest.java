@@ -0,0 +1,36 @@
+package com.shimba.openeditors;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.IOException;
+
+public class FilePathResolverTest extends BasePlatformTestCase {
+
+    public void testMainAndTestFilesOfOnePackageGetDifferentLabels() throws IOException {
+        VirtualFile projectBase = myFixture.getTempDirFixture().findOrCreateDir("project");
+        ContentRootTrie trie = new ContentRootTrie();
+        trie.add(projectBase);
+        trie.add(myFixture.getTempDirFixture().findOrCreateDir("project/src/main/java"));
+        trie.add(myFixture.getTempDirFixture().findOrCreateDir("project/src/test/java"));
+
+        VirtualFile mainFile = myFixture.getTempDirFixture().createFile("project/src/main/java/a/B.java");
+        VirtualFile testFile = myFixture.getTempDirFixture().createFile("project/src/test/java/a/B.java");
+
+        assertEquals("src/main/java/a/B.java", FilePathResolver.resolve(mainFile, trie, projectBase));
+        assertEquals("src/test/java/a/B.java", FilePathResolver.resolve(testFile, trie, projectBase));
+    }
+
+    public void testFilesOutsideTheProjectAreShownUnderTheirOutermostRoot() throws IOException {
+        VirtualFile projectBase = myFixture.getTempDirFixture().findOrCreateDir("project");
+        VirtualFile library = myFixture.getTempDirFixture().findOrCreateDir("library");
+        ContentRootTrie trie = new ContentRootTrie();
+        trie.add(projectBase);
+        trie.add(library);
+        trie.add(myFixture.getTempDirFixture().findOrCreateDir("library/src"));
+
+        VirtualFile file = myFixture.getTempDirFixture().createFile("library/src/c/D.java");
+
+        assertEquals("library/src/c/D.java", FilePathResolver.resolve(file, trie, projectBase));
+    }
+}
@@ -0,0 +1,66 @@
+package com.shimba.openeditors;
+
+import com.intellij.testFramework.LightVirtualFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.ui.components.JBList;
+
+import javax.swing.*;
+import java.lang.management.ManagementFactory;
+
+public class OpenEditorCellRendererAllocationTest extends BasePlatformTestCase {
+
+    private static final int GROUPS = 3;
+    private static final int FILES_PER_GROUP = 12;
+    private static final int WARMUP_PASSES = 500;
+    private static final int MEASURED_PASSES = 250;
+
+    // Leaves room for measuring noise but not for one object per cell
+    private static final long MAX_BYTES_PER_CELL = 8;
+
+    public void testScrollingOverRenderedRowsDoesNotAllocate() {
+        OpenEditorCellRenderer renderer = new OpenEditorCellRenderer(getProject(), new OpenEditorsListState());
+        JBList<ListItem> list = new JBList<>(buildModel());
+        list.setSize(400, 800);
+
+        // Fills the truncation, path and icon caches and gets the loop compiled
+        paint(renderer, list, WARMUP_PASSES);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        paint(renderer, list, MEASURED_PASSES);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        long cells = (long) MEASURED_PASSES * list.getModel().getSize();
+
+        assertTrue("Rendering allocated " + allocated + " bytes over " + cells + " cells",
+            allocated <= MAX_BYTES_PER_CELL * cells);
+    }
+
+    // Headers and files of varying names, pin and active state, so that
+    // consecutive cells never repeat the previous configuration
+    private static DefaultListModel<ListItem> buildModel() {
+        DefaultListModel<ListItem> model = new DefaultListModel<>();
+
+        for (int g = 0; g < GROUPS; g++) {
+            model.addElement(new ListItem.GroupHeader("Window " + (g + 1), null));
+
+            for (int i = 0; i < FILES_PER_GROUP; i++) {
+                String name = "Example" + "Long".repeat(i) + g + ".java";
+                LightVirtualFile file = new LightVirtualFile(name, "class Example {}");
+                model.addElement(new ListItem.FileEntry(file, i < 2, g == 0 && i == 5, null));
+            }
+        }
+
+        return model;
+    }
+
+    // One pass renders every row top to bottom, as a scrolled viewport does
+    private static void paint(OpenEditorCellRenderer renderer, JList<ListItem> list, int passes) {
+        ListModel<ListItem> model = list.getModel();
+
+        for (int pass = 0; pass < passes; pass++) {
+            for (int i = 0; i < model.getSize(); i++) {
+                renderer.getListCellRendererComponent(list, model.getElementAt(i), i, false, false);
+            }
+        }
+    }
+}